@@ -1,5 +1,6 @@
 package com.voice.shopping;
 
+import com.voice.shopping.controller.ProductController;
 import com.voice.shopping.service.ProductService;
 import com.voice.shopping.repository.ShoppingItemRepository;
 import lombok.extern.slf4j.Slf4j;
@@ -36,7 +37,8 @@ public class VoiceShoppingApplication implements CommandLineRunner {
                 registry.addMapping("/**")
                     .allowedOrigins("https://project-repo-0.onrender.com", "http://localhost:3000", "http://127.0.0.1:*")
                     .allowedMethods("*")
-                    .allowedHeaders("*");
+                    .allowedHeaders("*")
+                    .exposedHeaders(ProductController.NEXT_CURSOR_HEADER);
             }
         };
     }
@@ -56,6 +58,7 @@ public class VoiceShoppingApplication implements CommandLineRunner {
 
         // Initialize product database for search functionality
         productService.initializeSampleProducts();
+        productService.ensureNormalizedNames();
 
         log.info("Voice commands ready for processing!");
         log.info(" Shopping list operations ready!");
@@ -71,6 +74,7 @@ public class VoiceShoppingApplication implements CommandLineRunner {
         log.info("   DELETE /api/list/{userId}/{itemId} - Remove item");
         log.info("   GET  /api/recommendations/{userId} - Get recommendations");
         log.info("   GET  /api/search - Search products");
+        log.info("   POST /api/search/by-names - Look up products by exact name");
         log.info("   POST /api/search/initialize - Initialize sample data");
     }
 }
@@ -0,0 +1,31 @@
+package com.voice.shopping.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    @Value("${app.async.core-pool-size:8}")
+    private Integer corePoolSize;
+
+    @Value("${app.async.max-pool-size:32}")
+    private Integer maxPoolSize;
+
+    @Value("${app.async.queue-capacity:500}")
+    private Integer queueCapacity;
+
+    // Runs the Mongo work that follows an async Gemini call, so neither servlet threads
+    // nor OkHttp's dispatcher threads are tied up by it
+    @Bean
+    public ThreadPoolTaskExecutor voiceTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("voice-task-");
+        return executor;
+    }
+}
@@ -1,5 +1,6 @@
 package com.voice.shopping.config;
 
+import com.voice.shopping.controller.ProductController;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.cors.CorsConfiguration;
@@ -19,6 +20,7 @@ public class CorsConfig implements WebMvcConfigurer {
                 .allowedOriginPatterns("http://localhost:*", "http://127.0.0.1:*")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders(ProductController.NEXT_CURSOR_HEADER)
                 .allowCredentials(true)
                 .maxAge(3600);
     }
@@ -29,6 +31,7 @@ public class CorsConfig implements WebMvcConfigurer {
         configuration.setAllowedOriginPatterns(Arrays.asList("http://localhost:*", "http://127.0.0.1:*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList(ProductController.NEXT_CURSOR_HEADER));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
@@ -1,6 +1,13 @@
 package com.voice.shopping.config;
 
+import com.voice.shopping.service.GeminiBulkhead;
+import com.voice.shopping.service.GeminiMetrics;
+import com.voice.shopping.service.GeminiRequestCoalescer;
 import com.voice.shopping.service.GeminiService;
+import com.voice.shopping.service.LocalIntentParser;
+import com.voice.shopping.service.VoiceCommandCache;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,7 +19,9 @@ public class GeminiConfig {
     private String apiKey;
 
     @Bean
-    public GeminiService geminiService() {
+    public GeminiService geminiService(VoiceCommandCache voiceCommandCache, GeminiRequestCoalescer requestCoalescer,
+            CircuitBreakerRegistry circuitBreakerRegistry, MeterRegistry meterRegistry,
+            LocalIntentParser localIntentParser, GeminiMetrics geminiMetrics, GeminiBulkhead bulkhead) {
         try {
             // Try to get the API key from environment variables first
             String envApiKey = System.getenv("GEMINI_API_KEY");
@@ -39,7 +48,8 @@ public class GeminiConfig {
             String maskedKey = apiKey.length() > 10 ? apiKey.substring(0, 10) + "..." : "***";
             System.out.println("Gemini API Key loaded: " + maskedKey);
             
-            GeminiService service = new GeminiService();
+            GeminiService service = new GeminiService(voiceCommandCache, requestCoalescer,
+                    circuitBreakerRegistry, meterRegistry, localIntentParser, geminiMetrics, bulkhead);
             System.out.println("SUCCESS: Gemini service initialized successfully");
             return service;
         } catch (Exception e) {
@@ -0,0 +1,43 @@
+package com.voice.shopping.config;
+
+import com.voice.shopping.dto.ImportResult;
+import com.voice.shopping.service.ProductImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Loads a catalog file at startup: --app.import.file=/data/catalog.ndjson (or .csv)
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnExpression("!'${app.import.file:}'.isEmpty()")
+public class ProductImportRunner implements ApplicationRunner {
+
+    private final ProductImportService productImportService;
+
+    @Value("${app.import.file}")
+    private String importFile;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path path = Path.of(importFile);
+        if (!Files.isReadable(path)) {
+            log.error("Product import file {} is not readable", path);
+            return;
+        }
+        log.info("Importing products from {}", path);
+        try (InputStream input = Files.newInputStream(path)) {
+            ImportResult result = productImportService.importProducts(input,
+                    ProductImportService.Format.from(path.getFileName().toString()));
+            result.getErrors().forEach(error -> log.warn("Product import {}", error));
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.voice.shopping.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voice.shopping.dto.ParsedVoiceCommand;
+import com.voice.shopping.service.LocalIntentParser;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Offline stand-in for the Gemini generateContent API, for local runs and load tests.
+// Replays recorded responses (gemini.api.record-file) when the prompt matches exactly, otherwise
+// answers with canned responses derived from the prompt, after a configurable delay and error rate.
+@Slf4j
+@RestController
+@RequestMapping("/stub/gemini")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.gemini-stub.enabled", havingValue = "true")
+public class GeminiStubController {
+
+    private static final Pattern SINGLE_COMMAND = Pattern.compile("Process this shopping command: \"(.*)\"");
+    private static final Pattern BATCH_COMMAND = Pattern.compile("(?m)^\\d+\\. \"(.*)\"$");
+    private static final Pattern REQUESTED_ITEM = Pattern.compile("User requested: '(.*?)'");
+    private static final Pattern CURRENT_ITEMS = Pattern.compile("Current shopping list: (.*)");
+    private static final Pattern AVAILABLE_PRODUCTS = Pattern.compile("Available products in database: \\[(.*?)]");
+
+    private static final int STREAM_CHUNK_CHARS = 24;
+
+    private final LocalIntentParser localIntentParser;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, String> recordings = new HashMap<>();
+
+    @Value("${app.gemini-stub.recordings:}")
+    private String recordingsFile;
+
+    @Value("${app.gemini-stub.latency.base:50ms}")
+    private Duration baseLatency;
+
+    @Value("${app.gemini-stub.latency.jitter:100ms}")
+    private Duration latencyJitter;
+
+    // Occasional slow responses, to exercise timeouts, hedging and the circuit breaker
+    @Value("${app.gemini-stub.latency.tail-probability:0.0}")
+    private Double tailProbability;
+
+    @Value("${app.gemini-stub.latency.tail:2s}")
+    private Duration tailLatency;
+
+    @Value("${app.gemini-stub.error-rate:0.0}")
+    private Double errorRate;
+
+    @Value("${app.gemini-stub.error-status:503}")
+    private Integer errorStatus;
+
+    @PostConstruct
+    public void loadRecordings() {
+        if (recordingsFile == null || recordingsFile.isBlank() || !Files.exists(Path.of(recordingsFile))) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(Path.of(recordingsFile), StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode recording = objectMapper.readTree(line);
+                recordings.put(recording.path("prompt").asText(), recording.path("text").asText());
+            }
+            log.info("Gemini stub loaded {} recorded responses from {}", recordings.size(), recordingsFile);
+        } catch (IOException e) {
+            log.warn("Could not load Gemini stub recordings from {}: {}", recordingsFile, e.getMessage());
+        }
+    }
+
+    @PostMapping("/v1beta/models/{modelAction}")
+    public CompletableFuture<ResponseEntity<Object>> generateContent(@PathVariable String modelAction,
+            @RequestBody JsonNode request) {
+        String prompt = request.path("contents").path(0).path("parts").path(0).path("text").asText("");
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delayMillis = baseLatency.toMillis() + (latencyJitter.toMillis() > 0 ? random.nextLong(latencyJitter.toMillis() + 1) : 0);
+        if (random.nextDouble() < tailProbability) {
+            delayMillis += tailLatency.toMillis();
+        }
+        boolean fail = random.nextDouble() < errorRate;
+
+        // Delay without holding a servlet thread, so the stub itself doesn't cap benchmark throughput
+        return CompletableFuture.supplyAsync(() -> {
+            if (fail) {
+                Object error = Map.of("error", Map.of(
+                        "code", errorStatus,
+                        "message", "Injected error from Gemini stub",
+                        "status", "UNAVAILABLE"));
+                return ResponseEntity.status(errorStatus).body(error);
+            }
+            String text = recordings.getOrDefault(prompt, cannedResponse(prompt));
+            if (modelAction.endsWith(":streamGenerateContent")) {
+                return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(toEventStream(prompt, text));
+            }
+            return ResponseEntity.ok(toGeminiResponse(prompt, text));
+        }, CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS));
+    }
+
+    private String cannedResponse(String prompt) {
+        try {
+            Matcher single = SINGLE_COMMAND.matcher(prompt);
+            if (single.find()) {
+                return objectMapper.writeValueAsString(toJsonCommands(single.group(1)));
+            }
+            if (prompt.contains("Process each of these shopping commands")) {
+                List<Object> batch = new ArrayList<>();
+                Matcher numbered = BATCH_COMMAND.matcher(prompt);
+                while (numbered.find()) {
+                    batch.add(toJsonCommands(numbered.group(1)));
+                }
+                return objectMapper.writeValueAsString(batch);
+            }
+        } catch (IOException e) {
+            log.warn("Gemini stub could not build a voice response: {}", e.getMessage());
+        }
+
+        List<String> available = findList(AVAILABLE_PRODUCTS, prompt);
+        Matcher requested = REQUESTED_ITEM.matcher(prompt);
+        if (requested.find()) {
+            Set<String> words = new HashSet<>(Arrays.asList(requested.group(1).toLowerCase().split("\\s+")));
+            String matches = available.stream()
+                    .filter(name -> Arrays.stream(name.toLowerCase().split("\\s+")).anyMatch(words::contains))
+                    .limit(2)
+                    .collect(Collectors.joining(", "));
+            return matches.isEmpty() ? "none" : matches;
+        }
+
+        List<String> current = findList(CURRENT_ITEMS, prompt);
+        if (!current.isEmpty() || prompt.contains("Current shopping list:")) {
+            String recommendations = available.stream()
+                    .filter(name -> current.stream().noneMatch(name::equalsIgnoreCase))
+                    .limit(4)
+                    .collect(Collectors.joining(", "));
+            return recommendations.isEmpty() ? "none" : recommendations;
+        }
+        return "none";
+    }
+
+    private List<Map<String, Object>> toJsonCommands(String utterance) {
+        List<Map<String, Object>> commands = new ArrayList<>();
+        for (ParsedVoiceCommand command : localIntentParser.parseAll(utterance)) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("intent", command.getIntent());
+            json.put("item", command.getItem());
+            json.put("quantity", command.getQuantity());
+            json.put("unit", command.getUnit());
+            json.put("category", command.getCategory());
+            commands.add(json);
+        }
+        return commands;
+    }
+
+    private List<String> findList(Pattern pattern, String prompt) {
+        Matcher matcher = pattern.matcher(prompt);
+        if (!matcher.find() || matcher.group(1).isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(matcher.group(1).split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .toList();
+    }
+
+    // streamGenerateContent?alt=sse: the text split over several events, usage only on the last one
+    private String toEventStream(String prompt, String text) {
+        StringBuilder stream = new StringBuilder();
+        try {
+            for (int start = 0; start < text.length(); start += STREAM_CHUNK_CHARS) {
+                String chunk = text.substring(start, Math.min(text.length(), start + STREAM_CHUNK_CHARS));
+                Map<String, Object> event = start + STREAM_CHUNK_CHARS >= text.length()
+                        ? toGeminiResponse(prompt, chunk)
+                        : Map.of("candidates", List.of(Map.of(
+                                "content", Map.of("role", "model", "parts", List.of(Map.of("text", chunk))))));
+                stream.append("data: ").append(objectMapper.writeValueAsString(event)).append("\r\n\r\n");
+            }
+        } catch (IOException e) {
+            log.warn("Gemini stub could not build an event stream: {}", e.getMessage());
+        }
+        return stream.toString();
+    }
+
+    private Map<String, Object> toGeminiResponse(String prompt, String text) {
+        // Rough token counts (about 4 characters per token) so usage metrics see plausible numbers
+        int promptTokens = prompt.length() / 4;
+        int outputTokens = text.length() / 4;
+        return Map.of(
+                "candidates", List.of(Map.of(
+                        "content", Map.of("role", "model", "parts", List.of(Map.of("text", text))),
+                        "finishReason", "STOP")),
+                "usageMetadata", Map.of(
+                        "promptTokenCount", promptTokens,
+                        "candidatesTokenCount", outputTokens,
+                        "totalTokenCount", promptTokens + outputTokens));
+    }
+}
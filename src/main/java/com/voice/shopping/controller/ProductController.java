@@ -1,37 +1,67 @@
 package com.voice.shopping.controller;
 
 import com.voice.shopping.dto.ApiResponse;
+import com.voice.shopping.dto.AutocompleteSuggestion;
+import com.voice.shopping.dto.ImportResult;
+import com.voice.shopping.dto.ProductNamesRequest;
+import com.voice.shopping.dto.ProductPage;
+import com.voice.shopping.dto.ProductSearchResult;
+import com.voice.shopping.dto.SearchFacets;
 import com.voice.shopping.model.Product;
+import com.voice.shopping.repository.ProductSort;
+import com.voice.shopping.service.ProductImportService;
 import com.voice.shopping.service.ProductService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
 
 @Slf4j
 @RestController
 @RequestMapping("/api/search")
 @RequiredArgsConstructor
-@CrossOrigin(origins = { "https://project-repo-0.onrender.com", "http://localhost:*", "http://127.0.0.1:*" })
+@CrossOrigin(origins = { "https://project-repo-0.onrender.com", "http://localhost:*", "http://127.0.0.1:*" },
+        exposedHeaders = ProductController.NEXT_CURSOR_HEADER)
 public class ProductController {
 
+    // Exposed to CORS callers too, otherwise a browser client can't read it and never gets past page 1
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ProductService productService;
+    private final ProductImportService productImportService;
 
+    // Paged: the next page's cursor comes back in the X-Next-Cursor header, absent on the last page.
+    // With facets=true the body becomes {products, nextCursor, facets} instead of the bare product list.
     @GetMapping
-    public ResponseEntity<List<Product>> searchProducts(
+    public ResponseEntity<Object> searchProducts(
             @RequestParam(required = false) String query,
             @RequestParam(required = false) String brand,
-            @RequestParam(required = false) Double maxPrice) {
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean facets) {
 
-        log.info("Searching products - Query: {}, Brand: {}, MaxPrice: {}", query, brand, maxPrice);
+        log.info("Searching products - Query: {}, Brand: {}, MaxPrice: {}, Sort: {}", query, brand, maxPrice, sort);
 
         try {
-            List<Product> products = productService.searchProducts(query, brand, maxPrice);
-            log.info("Found {} products", products.size());
-            return ResponseEntity.ok(products);
-
+            ProductPage page = productService.searchProductsPage(query, brand, maxPrice,
+                    ProductSort.fromParam(sort), cursor, limit);
+            log.info("Found {} products", page.getProducts().size());
+            if (facets) {
+                SearchFacets counts = productService.searchFacets(query, brand, maxPrice);
+                return withNextCursor(page, new ProductSearchResult(page.getProducts(), page.getNextCursor(), counts));
+            }
+            return withNextCursor(page, page.getProducts());
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid search request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error searching products: {}", e.getMessage());
             return ResponseEntity.internalServerError().build();
@@ -39,19 +69,53 @@ public class ProductController {
     }
 
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category) {
+    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         log.info("Fetching products by category: {}", category);
 
         try {
-            List<Product> products = productService.searchProductsByCategory(category);
-            return ResponseEntity.ok(products);
+            ProductPage page = productService.searchProductsByCategoryPage(category,
+                    ProductSort.fromParam(sort), cursor, limit);
+            return withNextCursor(page, page.getProducts());
 
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid category request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error fetching products by category: {}", e.getMessage());
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<AutocompleteSuggestion>> autocomplete(@RequestParam String prefix,
+            @RequestParam(required = false) Integer limit) {
+        log.debug("Autocomplete for prefix: {}", prefix);
+
+        try {
+            return ResponseEntity.ok(productService.autocomplete(prefix, limit));
+
+        } catch (Exception e) {
+            log.error("Error completing prefix: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @PostMapping("/by-names")
+    public ResponseEntity<List<Product>> getProductsByNames(@Valid @RequestBody ProductNamesRequest request) {
+        log.info("Looking up {} products by name", request.getNames().size());
+
+        try {
+            return ResponseEntity.ok(productService.findProductsByNames(request.getNames()));
+
+        } catch (Exception e) {
+            log.error("Error looking up products by name: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/suggestions")
     public ResponseEntity<List<Product>> getProductSuggestions(@RequestParam String item) {
         log.info("Getting product suggestions for: {}", item);
@@ -80,6 +144,26 @@ public class ProductController {
         }
     }
 
+    // Streams the request body: NDJSON (application/x-ndjson) or CSV with a header row (text/csv)
+    @PostMapping("/import")
+    public ResponseEntity<ApiResponse<ImportResult>> importProducts(InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestParam(required = false) String format) {
+        log.info("Importing products ({})", format != null ? format : contentType);
+
+        try {
+            ImportResult result = productImportService.importProducts(body,
+                    ProductImportService.Format.from(format != null ? format : contentType));
+            return ResponseEntity.ok(ApiResponse.success(
+                    String.format("Imported %d of %d rows", result.getInserted() + result.getUpdated(), result.getRowsRead()),
+                    result));
+
+        } catch (Exception e) {
+            log.error("Error importing products: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to import products"));
+        }
+    }
+
     @PostMapping("/initialize")
     public ResponseEntity<ApiResponse<String>> initializeSampleData() {
         log.info("Initializing sample product data");
@@ -93,4 +177,12 @@ public class ProductController {
             return ResponseEntity.badRequest().body(ApiResponse.error("Failed to initialize sample data"));
         }
     }
+
+    private <T> ResponseEntity<T> withNextCursor(ProductPage page, T body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(body);
+    }
 }
@@ -7,6 +7,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -18,19 +19,19 @@ public class RecommendationController {
     private final RecommendationService recommendationService;
 
     @GetMapping("/{userId}")
-    public ResponseEntity<Map<String, Object>> getRecommendations(@PathVariable String userId) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> getRecommendations(@PathVariable String userId) {
         log.info("Generating recommendations for user: {}", userId);
 
-        try {
-            Map<String, Object> recommendations = recommendationService.getRecommendations(userId);
-            log.info("Generated {} recommendations for user {}",
-                    ((java.util.List<?>) recommendations.get("suggestions")).size(), userId);
-
-            return ResponseEntity.ok(recommendations);
-
-        } catch (Exception e) {
-            log.error("Error generating recommendations: {}", e.getMessage());
-            return ResponseEntity.internalServerError().build();
-        }
+        return recommendationService.getRecommendationsAsync(userId)
+                .thenApply(recommendations -> {
+                    log.info("Generated {} recommendations for user {}",
+                            ((java.util.List<?>) recommendations.get("suggestions")).size(), userId);
+
+                    return ResponseEntity.ok(recommendations);
+                })
+                .exceptionally(e -> {
+                    log.error("Error generating recommendations: {}", e.getMessage());
+                    return ResponseEntity.internalServerError().build();
+                });
     }
 }
@@ -1,14 +1,27 @@
 package com.voice.shopping.controller;
 
+import com.voice.shopping.dto.ParsedVoiceCommand;
+import com.voice.shopping.dto.VoiceBatchRequest;
 import com.voice.shopping.dto.VoiceCommandRequest;
 import com.voice.shopping.dto.VoiceCommandResponse;
+import com.voice.shopping.model.Product;
+import com.voice.shopping.service.VoiceCommandCache;
 import com.voice.shopping.service.VoiceProcessingService;
+import com.voice.shopping.service.VoiceStageListener;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -18,27 +31,95 @@ import jakarta.validation.Valid;
 public class VoiceController {
 
     private final VoiceProcessingService voiceProcessingService;
+    private final VoiceCommandCache voiceCommandCache;
+
+    @Value("${app.voice.stream.timeout:30s}")
+    private Duration streamTimeout;
 
     @PostMapping("/process")
-    public ResponseEntity<VoiceCommandResponse> processVoiceCommand(
+    public CompletableFuture<ResponseEntity<VoiceCommandResponse>> processVoiceCommand(
             @Valid @RequestBody VoiceCommandRequest request) {
 
         log.info("Processing voice command for user {}: {}", request.getUserId(), request.getQuery());
 
+        return voiceProcessingService
+                .processVoiceCommandAsync(request.getUserId(), request.getQuery(), request.getContext(), VoiceStageListener.NONE)
+                .thenApply(response -> {
+                    log.info("Voice command processed successfully: {}", response.getStatus());
+                    return ResponseEntity.ok(response);
+                })
+                .exceptionally(e -> {
+                    log.error("Error processing voice command: {}", e.getMessage());
+                    VoiceCommandResponse errorResponse = new VoiceCommandResponse(
+                            "error",
+                            "Sorry, there was an error processing your command. Please try again.");
+                    return ResponseEntity.badRequest().body(errorResponse);
+                });
+    }
+
+    // Same pipeline as /process, but streams "intent", "candidates" and "result" events as each stage finishes
+    @PostMapping(value = "/process/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter processVoiceCommandStream(@Valid @RequestBody VoiceCommandRequest request) {
+        log.info("Streaming voice command for user {}: {}", request.getUserId(), request.getQuery());
+
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        VoiceStageListener listener = new VoiceStageListener() {
+            @Override
+            public void onIntent(List<ParsedVoiceCommand> commands) {
+                sendEvent(emitter, "intent", commands);
+            }
+
+            @Override
+            public void onCandidates(String itemName, List<Product> candidates) {
+                sendEvent(emitter, "candidates", Map.of("item", itemName, "products", candidates));
+            }
+        };
+
+        voiceProcessingService
+                .processVoiceCommandAsync(request.getUserId(), request.getQuery(), request.getContext(), listener)
+                .whenComplete((response, e) -> {
+                    if (e != null) {
+                        log.error("Error streaming voice command: {}", e.getMessage());
+                        response = new VoiceCommandResponse("error",
+                                "Sorry, there was an error processing your command. Please try again.");
+                    }
+                    sendEvent(emitter, "result", response);
+                    emitter.complete();
+                });
+        return emitter;
+    }
+
+    private void sendEvent(SseEmitter emitter, String name, Object data) {
         try {
-            VoiceCommandResponse response = voiceProcessingService.processVoiceCommand(
-                    request.getUserId(),
-                    request.getQuery());
-
-            log.info("Voice command processed successfully: {}", response.getStatus());
-            return ResponseEntity.ok(response);
-
-        } catch (Exception e) {
-            log.error("Error processing voice command: {}", e.getMessage());
-            VoiceCommandResponse errorResponse = new VoiceCommandResponse(
-                    "error",
-                    "Sorry, there was an error processing your command. Please try again.");
-            return ResponseEntity.badRequest().body(errorResponse);
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // Client disconnected or the emitter timed out; the pipeline still finishes normally
+            log.debug("Could not send '{}' event: {}", name, e.getMessage());
         }
     }
+
+    @PostMapping("/process-batch")
+    public CompletableFuture<ResponseEntity<VoiceCommandResponse>> processVoiceCommands(
+            @Valid @RequestBody VoiceBatchRequest request) {
+
+        log.info("Processing {} voice commands for user {}", request.getQueries().size(), request.getUserId());
+
+        return voiceProcessingService.processVoiceCommandsAsync(request.getUserId(), request.getQueries())
+                .thenApply(response -> {
+                    log.info("Voice command batch processed: {}", response.getStatus());
+                    return ResponseEntity.ok(response);
+                })
+                .exceptionally(e -> {
+                    log.error("Error processing voice command batch: {}", e.getMessage());
+                    VoiceCommandResponse errorResponse = new VoiceCommandResponse(
+                            "error",
+                            "Sorry, there was an error processing your commands. Please try again.");
+                    return ResponseEntity.badRequest().body(errorResponse);
+                });
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(voiceCommandCache.getStats());
+    }
 }
@@ -0,0 +1,15 @@
+package com.voice.shopping.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AutocompleteSuggestion {
+    private String text;
+    private String type; // product, brand
+    private String productId; // null for brands
+    private String category;
+}
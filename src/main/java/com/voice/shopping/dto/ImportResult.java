@@ -0,0 +1,18 @@
+package com.voice.shopping.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ImportResult {
+    private long rowsRead;
+    private long inserted;
+    private long updated;
+    private long failed;
+    private long durationMillis;
+    private List<String> errors = new ArrayList<>(); // "row N: reason", capped by app.import.max-errors
+}
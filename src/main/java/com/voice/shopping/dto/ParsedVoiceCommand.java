@@ -0,0 +1,22 @@
+package com.voice.shopping.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParsedVoiceCommand {
+    private String intent; // "add", "remove", "update", "search", "list"
+    private String item;
+    private Integer quantity;
+    private String unit;
+    private String category;
+    private double confidence; // 0.0 - 1.0, how sure the parser is about this reading
+    private String source; // "gemini" or "local"
+
+    public ParsedVoiceCommand copy() {
+        return new ParsedVoiceCommand(intent, item, quantity, unit, category, confidence, source);
+    }
+}
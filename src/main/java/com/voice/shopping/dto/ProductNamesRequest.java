@@ -0,0 +1,19 @@
+package com.voice.shopping.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductNamesRequest {
+    @NotEmpty(message = "At least one name is required")
+    @Size(max = 100, message = "At most 100 names per lookup")
+    private List<@NotBlank(message = "Name is required") String> names;
+}
@@ -0,0 +1,16 @@
+package com.voice.shopping.dto;
+
+import com.voice.shopping.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPage {
+    private List<Product> products;
+    private String nextCursor; // null on the last page
+}
@@ -0,0 +1,17 @@
+package com.voice.shopping.dto;
+
+import com.voice.shopping.model.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResult {
+    private List<Product> products;
+    private String nextCursor;
+    private SearchFacets facets;
+}
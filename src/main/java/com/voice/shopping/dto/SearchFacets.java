@@ -0,0 +1,16 @@
+package com.voice.shopping.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchFacets {
+    private Map<String, Long> categories; // most common first
+    private Map<String, Long> brands;
+    private Map<String, Long> priceBuckets; // "0-2", "2-5", ..., "20+", "unpriced"
+}
@@ -0,0 +1,23 @@
+package com.voice.shopping.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VoiceBatchRequest {
+    @NotNull(message = "User ID is required")
+    private String userId;
+
+    @NotEmpty(message = "At least one query is required")
+    @Size(max = 20, message = "At most 20 queries per batch")
+    private List<@NotBlank(message = "Query is required") String> queries;
+}
@@ -16,6 +16,6 @@ public class VoiceCommandRequest {
     @NotBlank(message = "Query is required")
     private String query;
 
-    // Optional context for better processing
+    // Optional name of the item the client considers current, used to resolve "it"/"that" follow-ups
     private String context;
 }
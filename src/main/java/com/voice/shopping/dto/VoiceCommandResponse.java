@@ -8,7 +8,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class VoiceCommandResponse {
-    private String status; // "added", "removed", "updated", "searched", "error"
+    private String status; // "added", "removed", "updated", "searched", "clarification", "error"
     private String item; // Item name that was processed
     private Integer quantity; // Quantity processed
     private String message; // Human-readable response message
@@ -7,6 +7,8 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
@@ -16,6 +18,14 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "products")
+// Equality fields first, then the price range or sort key - one index per filter shape ProductCriteriaBuilder
+// emits: category (+ brand, price), brand (+ price), price alone (see price), and the no-query listing of
+// in-stock products sorted by name. category alone is served by the category_brand_price prefix.
+@CompoundIndexes({
+        @CompoundIndex(name = "category_brand_price", def = "{ 'category': 1, 'brand': 1, 'price': 1 }"),
+        @CompoundIndex(name = "brand_price", def = "{ 'brand': 1, 'price': 1 }"),
+        @CompoundIndex(name = "inStock_name", def = "{ 'inStock': 1, 'name': 1 }")
+})
 public class Product {
     @Id
     private String id;
@@ -24,13 +34,17 @@ public class Product {
     @TextIndexed(weight = 3) 
     private String name;
 
+    // Lower-cased, whitespace-collapsed name for exact batch lookups. Kept in step with name by
+    // setName; the unique index is created by ProductService.ensureNormalizedNames
+    private String normalizedName;
+
     @TextIndexed(weight = 2)
     private String brand;
 
     @Positive(message = "Price must be positive")
+    @Indexed
     private Double price;
 
-    @Indexed
     private String category;
 
     @TextIndexed
@@ -44,7 +58,7 @@ public class Product {
 
     // Constructor for quick product creation
     public Product(String name, String brand, Double price, String category, String description) {
-        this.name = name;
+        setName(name);
         this.brand = brand;
         this.price = price;
         this.category = category;
@@ -52,4 +66,13 @@ public class Product {
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
     }
+
+    public void setName(String name) {
+        this.name = name;
+        this.normalizedName = normalizeName(name);
+    }
+
+    public static String normalizeName(String name) {
+        return name == null ? null : name.trim().toLowerCase().replaceAll("\\s+", " ");
+    }
 }
@@ -0,0 +1,69 @@
+package com.voice.shopping.repository;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.Collection;
+import java.util.List;
+
+// Builds product filters from only the predicates actually supplied, as plain equality, $in and range
+// clauses on raw field values, so Mongo can plan every shape on one of the indexes declared on Product
+// instead of scanning the collection.
+public final class ProductCriteriaBuilder {
+
+    private Collection<String> categories;
+    private String brand;
+    private Double maxPrice;
+    private Boolean inStock;
+
+    private ProductCriteriaBuilder() {
+    }
+
+    public static ProductCriteriaBuilder products() {
+        return new ProductCriteriaBuilder();
+    }
+
+    // Exact category values as stored; resolve user input to them first (see ProductCatalogIndex)
+    public ProductCriteriaBuilder categories(Collection<String> categories) {
+        this.categories = categories;
+        return this;
+    }
+
+    public ProductCriteriaBuilder category(String category) {
+        return categories(category == null ? null : List.of(category));
+    }
+
+    public ProductCriteriaBuilder brand(String brand) {
+        this.brand = brand;
+        return this;
+    }
+
+    public ProductCriteriaBuilder maxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+        return this;
+    }
+
+    public ProductCriteriaBuilder inStock(Boolean inStock) {
+        this.inStock = inStock;
+        return this;
+    }
+
+    // Equality fields first, then the range, matching the index order
+    public Criteria build() {
+        Criteria criteria = new Criteria();
+        if (categories != null && !categories.isEmpty()) {
+            criteria = categories.size() == 1
+                    ? criteria.and("category").is(categories.iterator().next())
+                    : criteria.and("category").in(categories);
+        }
+        if (brand != null && !brand.isBlank()) {
+            criteria = criteria.and("brand").is(brand);
+        }
+        if (maxPrice != null) {
+            criteria = criteria.and("price").lte(maxPrice);
+        }
+        if (inStock != null) {
+            criteria = criteria.and("inStock").is(inStock);
+        }
+        return criteria;
+    }
+}
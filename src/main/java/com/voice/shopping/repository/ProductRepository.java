@@ -7,10 +7,11 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ProductRepository extends MongoRepository<Product, String> {
+public interface ProductRepository extends MongoRepository<Product, String>, ProductRepositoryCustom {
 
     // Text search across name, brand, and description
     @Query("{ $text: { $search: ?0 } }")
@@ -30,21 +31,12 @@ public interface ProductRepository extends MongoRepository<Product, String> {
     @Query("{ $text: { $search: ?0 }, price: { $lte: ?1 } }")
     List<Product> findByTextSearchAndPriceLessThanEqual(String searchTerm, Double maxPrice);
 
-    // Complex search query
-    @Query("{ $and: [ " +
-            "{ $or: [ " +
-            "  { $text: { $search: ?0 } }, " +
-            "  { name: { $regex: ?0, $options: 'i' } }, " +
-            "  { brand: { $regex: ?0, $options: 'i' } } " +
-            "] }, " +
-            "{ $expr: { $cond: { if: { $ne: [?1, null] }, then: { $eq: ['$brand', ?1] }, else: true } } }, " +
-            "{ $expr: { $cond: { if: { $ne: [?2, null] }, then: { $lte: ['$price', ?2] }, else: true } } } " +
-            "] }")
-    List<Product> findBySearchCriteria(String query, String brand, Double maxPrice);
-
     // Find products in stock
     List<Product> findByInStockTrue();
 
+    // Exact batch lookup on the indexed normalized name
+    List<Product> findByNormalizedNameInAndInStockTrue(Collection<String> normalizedNames);
+
     // Find by name containing (for suggestions)
     @Query("{ name: { $regex: ?0, $options: 'i' }, inStock: true }")
     List<Product> findByNameContainingIgnoreCaseAndInStockTrue(String name);
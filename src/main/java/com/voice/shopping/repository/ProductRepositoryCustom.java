@@ -0,0 +1,18 @@
+package com.voice.shopping.repository;
+
+import com.voice.shopping.dto.ProductPage;
+import com.voice.shopping.dto.SearchFacets;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    // One page of products matching the optional text query and filter, sorted and limited in Mongo.
+    // The cursor is the nextCursor of the previous page, or null for the first page.
+    ProductPage findPage(String text, Criteria filter, ProductSort sort, String cursor, int limit);
+
+    // Category, brand and price-bucket counts over everything the text query and filter match, in one
+    // $facet aggregation. Price boundaries are ascending lower bounds; the last bucket is open-ended.
+    SearchFacets findFacets(String text, Criteria filter, List<Double> priceBoundaries);
+}
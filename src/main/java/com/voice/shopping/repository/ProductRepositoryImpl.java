@@ -0,0 +1,186 @@
+package com.voice.shopping.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voice.shopping.dto.ProductPage;
+import com.voice.shopping.dto.SearchFacets;
+import com.voice.shopping.model.Product;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Keyset pagination: every page is sorted by (sort key, _id) and starts strictly after the last row
+// of the previous page, so page N costs the same as page 1 instead of skipping N * limit documents.
+// That holds for the indexed keys (price, name). RELEVANCE sorts on the $text score, which Mongo
+// computes for every matching document on every request, so deep relevance pages cost about as much
+// as the first one: the cursor saves the skip and the transfer, not the scoring.
+// The cursor is an opaque base64 token holding that last row's sort value and id.
+@RequiredArgsConstructor
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private static final String SCORE_FIELD = "_score";
+    private static final String UNPRICED = "unpriced";
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public ProductPage findPage(String text, Criteria filter, ProductSort sort, String cursor, int limit) {
+        boolean textSearch = text != null && !text.isBlank();
+        ProductSort effectiveSort = sort == ProductSort.RELEVANCE && !textSearch ? ProductSort.NAME : sort;
+        String sortField = effectiveSort == ProductSort.RELEVANCE ? SCORE_FIELD : effectiveSort.getKey();
+        boolean descending = effectiveSort == ProductSort.RELEVANCE;
+
+        List<AggregationOperation> stages = matchStages(text, filter);
+        if (effectiveSort == ProductSort.RELEVANCE) {
+            // Not index-backed: every match is scored and sorted before the cursor filter applies
+            stages.add(context -> new Document("$addFields",
+                    new Document(SCORE_FIELD, new Document("$meta", "textScore"))));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            Keyset after = decode(cursor, effectiveSort);
+            stages.add(Aggregation.match(after(sortField, descending, after)));
+        }
+        stages.add(Aggregation.sort(Sort.by(descending ? Sort.Direction.DESC : Sort.Direction.ASC, sortField)
+                .and(Sort.by(Sort.Direction.ASC, "_id"))));
+        // One extra row tells us whether there is a next page
+        stages.add(Aggregation.limit(limit + 1L));
+
+        List<Document> rows = mongoTemplate.aggregate(Aggregation.newAggregation(stages),
+                mongoTemplate.getCollectionName(Product.class), Document.class).getMappedResults();
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, rows.size()); i++) {
+            products.add(mongoTemplate.getConverter().read(Product.class, rows.get(i)));
+        }
+        String nextCursor = rows.size() > limit
+                ? encode(effectiveSort, rows.get(limit - 1).get(sortField), rows.get(limit - 1).get("_id"))
+                : null;
+        return new ProductPage(products, nextCursor);
+    }
+
+    @Override
+    public SearchFacets findFacets(String text, Criteria filter, List<Double> priceBoundaries) {
+        List<Object> boundaries = new ArrayList<>(priceBoundaries);
+        boundaries.add(Double.MAX_VALUE);
+
+        List<AggregationOperation> stages = matchStages(text, filter);
+        stages.add(Aggregation.facet(Aggregation.sortByCount("category")).as("categories")
+                .and(Aggregation.sortByCount("brand")).as("brands")
+                .and(Aggregation.bucket("price")
+                        .withBoundaries(boundaries.toArray())
+                        .withDefaultBucket(UNPRICED))
+                .as("prices"));
+
+        Document facets = mongoTemplate.aggregate(Aggregation.newAggregation(stages),
+                mongoTemplate.getCollectionName(Product.class), Document.class).getUniqueMappedResult();
+        if (facets == null) {
+            return new SearchFacets(Map.of(), Map.of(), Map.of());
+        }
+
+        Map<String, Long> prices = new LinkedHashMap<>();
+        for (Document bucket : facets.getList("prices", Document.class, List.of())) {
+            Object lower = bucket.get("_id");
+            prices.put(lower instanceof Number number ? priceLabel(number.doubleValue(), priceBoundaries) : UNPRICED,
+                    count(bucket));
+        }
+        return new SearchFacets(counts(facets.getList("categories", Document.class, List.of())),
+                counts(facets.getList("brands", Document.class, List.of())), prices);
+    }
+
+    private List<AggregationOperation> matchStages(String text, Criteria filter) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        if (text != null && !text.isBlank()) {
+            // $text has to be the first stage of the pipeline
+            stages.add(Aggregation.match(TextCriteria.forDefaultLanguage().matching(text)));
+        }
+        if (filter != null) {
+            stages.add(Aggregation.match(filter));
+        }
+        return stages;
+    }
+
+    private static Map<String, Long> counts(List<Document> groups) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Document group : groups) {
+            if (group.get("_id") != null) {
+                counts.put(group.get("_id").toString(), count(group));
+            }
+        }
+        return counts;
+    }
+
+    private static long count(Document group) {
+        Object count = group.get("count");
+        return count instanceof Number number ? number.longValue() : 0L;
+    }
+
+    private static String priceLabel(double lower, List<Double> boundaries) {
+        int index = boundaries.indexOf(lower);
+        if (index < 0 || index == boundaries.size() - 1) {
+            return formatPrice(lower) + "+";
+        }
+        return formatPrice(lower) + "-" + formatPrice(boundaries.get(index + 1));
+    }
+
+    private static String formatPrice(double price) {
+        return price == Math.rint(price) ? String.valueOf((long) price) : String.valueOf(price);
+    }
+
+    // Rows after (value, id) in (sortField, _id) order; missing prices sort first in Mongo
+    private Criteria after(String sortField, boolean descending, Keyset after) {
+        Criteria sameValueLaterId = Criteria.where(sortField).is(after.value).and("_id").gt(after.id);
+        if (after.value == null) {
+            return new Criteria().orOperator(sameValueLaterId, Criteria.where(sortField).ne(null));
+        }
+        Criteria laterValue = descending
+                ? Criteria.where(sortField).lt(after.value)
+                : Criteria.where(sortField).gt(after.value);
+        return new Criteria().orOperator(laterValue, sameValueLaterId);
+    }
+
+    private String encode(ProductSort sort, Object value, Object id) {
+        Map<String, Object> token = new LinkedHashMap<>();
+        token.put("s", sort.getKey());
+        token.put("v", value);
+        token.put("id", id == null ? null : id.toString());
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(token));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode search cursor", e);
+        }
+    }
+
+    private Keyset decode(String cursor, ProductSort sort) {
+        JsonNode token;
+        try {
+            token = objectMapper.readTree(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid search cursor");
+        }
+        if (!sort.getKey().equals(token.path("s").asText())) {
+            throw new IllegalArgumentException("Search cursor was issued for a different sort order");
+        }
+        JsonNode value = token.path("v");
+        Object sortValue = value.isNumber() ? (Object) value.asDouble() : value.isTextual() ? value.asText() : null;
+        String id = token.path("id").asText();
+        return new Keyset(sortValue, ObjectId.isValid(id) ? new ObjectId(id) : id);
+    }
+
+    private record Keyset(Object value, Object id) {
+    }
+}
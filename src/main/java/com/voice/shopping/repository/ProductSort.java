@@ -0,0 +1,30 @@
+package com.voice.shopping.repository;
+
+// Sort orders for paged product search. Relevance needs a text query; without one it falls back to name.
+public enum ProductSort {
+    RELEVANCE("score"),
+    PRICE("price"),
+    NAME("name");
+
+    private final String key;
+
+    ProductSort(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public static ProductSort fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return RELEVANCE;
+        }
+        for (ProductSort sort : values()) {
+            if (sort.key.equalsIgnoreCase(value) || sort.name().equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Unknown sort '" + value + "', expected relevance, price or name");
+    }
+}
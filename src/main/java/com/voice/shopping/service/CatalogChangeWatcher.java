@@ -0,0 +1,253 @@
+package com.voice.shopping.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.voice.shopping.model.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Keeps this instance's in-memory catalog in step with writes made by other instances. Watches the
+// products collection through a change stream and applies inserts, updates and deletes to the catalog
+// index once the stream goes quiet, so a bulk import costs one snapshot rebuild rather than one per batch. Where change streams aren't available (standalone mongod) it polls the shared
+// CatalogVersion document instead and reloads only products updated since the last sync.
+//
+// app.catalog.sync.mode: auto (change stream, polling if unsupported), change-stream, polling or off
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogChangeWatcher {
+
+    // "The $changeStream stage is only supported on replica sets"
+    private static final int CHANGE_STREAMS_UNSUPPORTED = 40573;
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductCatalogIndex catalogIndex;
+    private final ProductService productService;
+    private final CatalogVersion catalogVersion;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.catalog.sync.mode:auto}")
+    private String mode;
+
+    @Value("${app.catalog.sync.poll-interval:10s}")
+    private Duration pollInterval;
+
+    // Under a steady stream of writes (a long import) the index still catches up this often
+    @Value("${app.catalog.sync.max-delay:5s}")
+    private Duration maxDelay;
+
+    // Polling re-reads a little before the last sync to absorb clock skew between instances
+    @Value("${app.catalog.sync.clock-skew:1m}")
+    private Duration clockSkew;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    // Polling state, only touched by the worker thread
+    private long lastVersion = -1;
+    private LocalDateTime lastSync;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if ("off".equalsIgnoreCase(mode) || running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "catalog-sync");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        boolean polling = "polling".equalsIgnoreCase(mode);
+        BsonDocument resumeToken = null;
+        while (running) {
+            try {
+                if (polling) {
+                    poll();
+                } else {
+                    resumeToken = watch(resumeToken);
+                }
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == CHANGE_STREAMS_UNSUPPORTED && "auto".equalsIgnoreCase(mode)) {
+                    log.info("Change streams are not available, polling the catalog version every {}", pollInterval);
+                    polling = true;
+                } else if (e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    // Too far behind to resume: start a fresh stream from a full reload
+                    log.warn("Catalog change stream history lost, reloading the catalog");
+                    resumeToken = null;
+                    reloadAll();
+                } else {
+                    backOff(e);
+                }
+            } catch (MongoException | IllegalStateException e) {
+                backOff(e);
+            }
+        }
+    }
+
+    private BsonDocument watch(BsonDocument resumeToken) {
+        ChangeStreamIterable<Document> stream = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class))
+                .watch()
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        boolean resuming = resumeToken != null;
+        if (resuming) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+
+        Map<String, Product> upserts = new LinkedHashMap<>();
+        Set<String> removals = new LinkedHashSet<>();
+        long oldestPending = 0;
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+            log.info("Watching the product catalog for changes");
+            if (!resuming && catalogIndex.isLoaded()) {
+                // Writes made before the stream opened aren't in it; catch up once
+                reloadAll();
+            }
+            while (running) {
+                ChangeStreamDocument<Document> event = cursor.tryNext();
+                if (event == null) {
+                    // Quiet for a moment: apply whatever has accumulated
+                    apply(upserts, removals, "change-stream");
+                    continue;
+                }
+                resumeToken = event.getResumeToken();
+                if (upserts.isEmpty() && removals.isEmpty()) {
+                    oldestPending = System.nanoTime();
+                }
+
+                switch (event.getOperationType()) {
+                    case INSERT, UPDATE, REPLACE -> {
+                        if (event.getFullDocument() != null) {
+                            Product product = mongoTemplate.getConverter().read(Product.class, event.getFullDocument());
+                            removals.remove(product.getId());
+                            upserts.put(product.getId(), product);
+                        }
+                    }
+                    case DELETE -> {
+                        String productId = idOf(event.getDocumentKey());
+                        upserts.remove(productId);
+                        removals.add(productId);
+                    }
+                    default -> {
+                        // drop, rename or invalidate: the stream is over, so rebuild and start a new one
+                        log.info("Catalog change stream ended ({}), reloading the catalog", event.getOperationType());
+                        reloadAll();
+                        return null;
+                    }
+                }
+                if (System.nanoTime() - oldestPending >= maxDelay.toNanos()) {
+                    apply(upserts, removals, "change-stream");
+                }
+            }
+            apply(upserts, removals, "change-stream");
+        }
+        return resumeToken;
+    }
+
+    private void poll() {
+        if (catalogIndex.isLoaded()) {
+            if (lastSync == null) {
+                // Writes made between the index load and this first poll still have to be picked up
+                lastSync = catalogIndex.loadedAt();
+            }
+            long version = catalogVersion.current();
+            if (version != lastVersion) {
+                LocalDateTime syncStarted = LocalDateTime.now();
+                List<Product> changed = mongoTemplate.find(
+                        new Query(Criteria.where("updatedAt").gte(lastSync.minus(clockSkew))), Product.class);
+                Map<String, Product> upserts = new LinkedHashMap<>();
+                changed.forEach(product -> upserts.put(product.getId(), product));
+                apply(upserts, new LinkedHashSet<>(), "polling");
+
+                // updatedAt can't reveal deletions; a count mismatch means something went away. Count only
+                // what the index keeps (it skips unnamed products), or one such document forces a reload every time
+                long indexable = mongoTemplate.count(new Query(Criteria.where("name").ne(null)), Product.class);
+                if (indexable != catalogIndex.size()) {
+                    reloadAll();
+                }
+                lastVersion = version;
+                lastSync = syncStarted;
+            }
+        }
+        sleep(pollInterval);
+    }
+
+    private void apply(Map<String, Product> upserts, Set<String> removals, String source) {
+        if (upserts.isEmpty() && removals.isEmpty()) {
+            return;
+        }
+        // Before the first load there is nothing to patch; the lazy load will read the current catalog
+        if (catalogIndex.isLoaded()) {
+            catalogIndex.apply(upserts.values(), removals);
+            log.debug("Applied {} catalog upserts and {} deletions from {}", upserts.size(), removals.size(), source);
+            meterRegistry.counter("catalog.sync.changes", "source", source).increment(upserts.size() + removals.size());
+        }
+        upserts.clear();
+        removals.clear();
+    }
+
+    private void reloadAll() {
+        productService.refreshCatalogIndex();
+        meterRegistry.counter("catalog.sync.reloads").increment();
+    }
+
+    private void backOff(Exception e) {
+        if (running) {
+            log.warn("Catalog sync failed, retrying in {}: {}", pollInterval, e.getMessage());
+            sleep(pollInterval);
+        }
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static String idOf(BsonDocument documentKey) {
+        BsonValue id = documentKey == null ? null : documentKey.get("_id");
+        if (id == null) {
+            return null;
+        }
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.isString() ? id.asString().getValue() : id.toString();
+    }
+}
@@ -0,0 +1,61 @@
+package com.voice.shopping.service;
+
+import com.voice.shopping.model.Product;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// What prompt building needs from the catalog - name, brand, category, price and pre-tokenized names -
+// built once per catalog snapshot and shared by every prompt until the catalog changes.
+public final class CatalogDigest {
+
+    private final long version;
+    private final List<Entry> entries;
+    private final String names;
+    private final long namesBytes;
+
+    public record Entry(String name, String brand, String category, Double price,
+            Set<String> nameTokens, Set<String> brandTokens) {
+    }
+
+    CatalogDigest(long version, Collection<Product> products) {
+        List<Entry> built = new ArrayList<>(products.size());
+        for (Product product : products) {
+            if (product.getName() == null) {
+                continue;
+            }
+            built.add(new Entry(product.getName(), product.getBrand(), product.getCategory(), product.getPrice(),
+                    Set.copyOf(ProductCandidateSelector.tokens(product.getName())),
+                    Set.copyOf(ProductCandidateSelector.tokens(product.getBrand()))));
+        }
+        this.version = version;
+        this.entries = List.copyOf(built);
+        this.names = built.stream().map(Entry::name).collect(Collectors.joining(", "));
+        this.namesBytes = names.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    // Every product name, comma separated
+    public String getNames() {
+        return names;
+    }
+
+    public long getNamesBytes() {
+        return namesBytes;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,40 @@
+package com.voice.shopping.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+// Shared catalog version counter in Mongo. Every catalog write bumps it, so instances that can't use
+// change streams notice writes made elsewhere by polling one small document.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogVersion {
+
+    private static final String COLLECTION = "catalog_versions";
+    private static final String PRODUCTS = "products";
+
+    private final MongoTemplate mongoTemplate;
+
+    public void bump() {
+        try {
+            mongoTemplate.upsert(new Query(Criteria.where("_id").is(PRODUCTS)),
+                    new Update().inc("version", 1L).currentDate("updatedAt"), COLLECTION);
+        } catch (DataAccessException e) {
+            // The write itself succeeded; other instances still catch up on their next full refresh
+            log.warn("Could not bump the catalog version: {}", e.getMessage());
+        }
+    }
+
+    public long current() {
+        Document version = mongoTemplate.findById(PRODUCTS, Document.class, COLLECTION);
+        Object value = version == null ? null : version.get("version");
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+}
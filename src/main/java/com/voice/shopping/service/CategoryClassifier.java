@@ -0,0 +1,204 @@
+package com.voice.shopping.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+// Maps a search query to product categories using the synonym dictionary in
+// app.search.category-synonyms ({"Dairy": {"milk": 1.0, ...}, ...}). The keywords are compiled into an
+// Aho-Corasick automaton, so a query is classified in one pass however many synonyms there are.
+// Keywords match anywhere in the query ("cookies" hits "cookie"), and every category hit is scored by
+// the summed weight of its matched keywords. The dictionary is reloaded when its file changes.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CategoryClassifier {
+
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${app.search.category-synonyms:classpath:category-synonyms.json}")
+    private String synonymsLocation;
+
+    @Value("${app.search.category-synonyms-reload:30s}")
+    private Duration reloadInterval;
+
+    private volatile Automaton automaton = new Automaton(Map.of());
+    private volatile long loadedModified = -1;
+    private volatile long nextReloadCheck;
+
+    public record CategoryMatch(String category, double score) {
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    // Matched categories, highest score first; ties keep dictionary order
+    public List<CategoryMatch> classify(String query) {
+        reloadIfChanged();
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        return automaton.classify(query.toLowerCase().trim());
+    }
+
+    public synchronized void reload() {
+        Resource resource = resourceLoader.getResource(synonymsLocation);
+        try (InputStream input = resource.getInputStream()) {
+            Map<String, LinkedHashMap<String, Double>> synonyms = objectMapper.readValue(input,
+                    new TypeReference<LinkedHashMap<String, LinkedHashMap<String, Double>>>() {
+                    });
+            automaton = new Automaton(synonyms);
+            loadedModified = lastModified(resource);
+            log.info("Loaded {} category synonyms for {} categories from {}",
+                    automaton.keywordCount, synonyms.size(), synonymsLocation);
+        } catch (IOException | RuntimeException e) {
+            // Keep serving the previous dictionary rather than losing category search
+            log.warn("Could not load category synonyms from {}: {}", synonymsLocation, e.getMessage());
+        }
+    }
+
+    // Cheap enough for the request path: at most one timestamp check per reload interval
+    private void reloadIfChanged() {
+        long now = System.nanoTime();
+        if (now - nextReloadCheck < 0) {
+            return;
+        }
+        nextReloadCheck = now + reloadInterval.toNanos();
+        long modified = lastModified(resourceLoader.getResource(synonymsLocation));
+        if (modified > 0 && modified != loadedModified) {
+            reload();
+        }
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.isFile() ? resource.lastModified() : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static final class Automaton {
+        private final List<Node> nodes = new ArrayList<>();
+        private final List<String> categories = new ArrayList<>();
+        private int keywordCount;
+
+        private Automaton(Map<String, ? extends Map<String, Double>> synonyms) {
+            nodes.add(new Node());
+            for (Map.Entry<String, ? extends Map<String, Double>> category : synonyms.entrySet()) {
+                int categoryIndex = categories.size();
+                categories.add(category.getKey());
+                for (Map.Entry<String, Double> keyword : category.getValue().entrySet()) {
+                    String word = keyword.getKey().toLowerCase().trim();
+                    if (!word.isEmpty()) {
+                        insert(word, new Output(categoryIndex, keyword.getValue() == null ? 1.0 : keyword.getValue()));
+                        keywordCount++;
+                    }
+                }
+            }
+            linkFailures();
+        }
+
+        private void insert(String word, Output output) {
+            int state = 0;
+            for (int i = 0; i < word.length(); i++) {
+                char c = word.charAt(i);
+                Integer next = nodes.get(state).next.get(c);
+                if (next == null) {
+                    next = nodes.size();
+                    nodes.add(new Node());
+                    nodes.get(state).next.put(c, next);
+                }
+                state = next;
+            }
+            nodes.get(state).outputs.add(output);
+        }
+
+        // Breadth-first, so each node's failure target is already complete when its children are linked
+        private void linkFailures() {
+            Queue<Integer> queue = new ArrayDeque<>(nodes.get(0).next.values());
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                for (Map.Entry<Character, Integer> edge : nodes.get(state).next.entrySet()) {
+                    int child = edge.getValue();
+                    int fallback = nodes.get(state).failure;
+                    while (fallback != 0 && !nodes.get(fallback).next.containsKey(edge.getKey())) {
+                        fallback = nodes.get(fallback).failure;
+                    }
+                    Integer target = nodes.get(fallback).next.get(edge.getKey());
+                    nodes.get(child).failure = target != null && target != child ? target : 0;
+                    nodes.get(child).outputs.addAll(nodes.get(nodes.get(child).failure).outputs);
+                    queue.add(child);
+                }
+            }
+        }
+
+        private List<CategoryMatch> classify(String query) {
+            double[] scores = new double[categories.size()];
+            Set<Output> seen = new HashSet<>();
+            int state = 0;
+            for (int i = 0; i < query.length(); i++) {
+                char c = query.charAt(i);
+                while (state != 0 && !nodes.get(state).next.containsKey(c)) {
+                    state = nodes.get(state).failure;
+                }
+                state = nodes.get(state).next.getOrDefault(c, 0);
+                for (Output output : nodes.get(state).outputs) {
+                    // A keyword repeated in the query counts once
+                    if (seen.add(output)) {
+                        scores[output.category] += output.weight;
+                    }
+                }
+            }
+
+            List<CategoryMatch> matches = new ArrayList<>();
+            for (int i = 0; i < scores.length; i++) {
+                if (scores[i] > 0) {
+                    matches.add(new CategoryMatch(categories.get(i), scores[i]));
+                }
+            }
+            // Stable sort, so equal scores stay in dictionary order
+            matches.sort((a, b) -> Double.compare(b.score(), a.score()));
+            return matches;
+        }
+    }
+
+    private static final class Node {
+        private final Map<Character, Integer> next = new HashMap<>();
+        private final List<Output> outputs = new ArrayList<>();
+        private int failure;
+    }
+
+    // Identity equality on purpose: each output is one keyword of one category
+    private static final class Output {
+        private final int category;
+        private final double weight;
+
+        private Output(int category, double weight) {
+            this.category = category;
+            this.weight = weight;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.voice.shopping.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// SymSpell-style deletion index: every term is stored under each string reachable by deleting up to
+// two characters, so a misheard token ("brocoli", "chedar", "yoghurt") finds its candidates with a few
+// hash lookups instead of an edit-distance scan over the whole catalog. Candidates are then checked
+// with the same edit-distance limits ItemNameMatcher uses. Built once per catalog snapshot and read-only after.
+final class FuzzyTermIndex<T> {
+
+    private final Map<String, Set<String>> termsByDelete = new HashMap<>();
+    private final Map<String, Set<T>> valuesByTerm = new HashMap<>();
+
+    void add(String term, T value) {
+        if (term.isEmpty()) {
+            return;
+        }
+        Set<T> values = valuesByTerm.get(term);
+        if (values == null) {
+            values = new LinkedHashSet<>();
+            valuesByTerm.put(term, values);
+            for (String variant : deletes(term)) {
+                termsByDelete.computeIfAbsent(variant, key -> new HashSet<>()).add(term);
+            }
+        }
+        values.add(value);
+    }
+
+    // Values of every indexed term within the allowed edit distance of the token, closest terms first
+    Set<T> lookup(String token) {
+        Set<T> exact = valuesByTerm.get(token);
+        if (exact != null) {
+            return exact;
+        }
+
+        Map<String, Integer> distances = new HashMap<>();
+        for (String variant : deletes(token)) {
+            for (String term : termsByDelete.getOrDefault(variant, Set.of())) {
+                if (!distances.containsKey(term)) {
+                    int allowed = ItemNameMatcher.allowedEdits(token, term);
+                    int distance = allowed == 0 ? 1 : ItemNameMatcher.editDistance(token, term, allowed);
+                    distances.put(term, distance <= allowed ? distance : Integer.MAX_VALUE);
+                }
+            }
+        }
+
+        Set<T> values = new LinkedHashSet<>();
+        distances.entrySet().stream()
+                .filter(entry -> entry.getValue() != Integer.MAX_VALUE)
+                .sorted(Map.Entry.comparingByValue())
+                .forEach(entry -> values.addAll(valuesByTerm.get(entry.getKey())));
+        return values;
+    }
+
+    int termCount() {
+        return valuesByTerm.size();
+    }
+
+    // Two deletions from six characters up, one from three, so any pair within ItemNameMatcher's
+    // limits shares at least one variant
+    private static Set<String> deletes(String word) {
+        int depth = word.length() >= 6 ? 2 : word.length() >= 3 ? 1 : 0;
+        Set<String> variants = new HashSet<>();
+        variants.add(word);
+        List<String> frontier = List.of(word);
+        for (int level = 0; level < depth; level++) {
+            Set<String> next = new HashSet<>();
+            for (String current : frontier) {
+                for (int i = 0; i < current.length(); i++) {
+                    String deleted = current.substring(0, i) + current.substring(i + 1);
+                    if (variants.add(deleted)) {
+                        next.add(deleted);
+                    }
+                }
+            }
+            frontier = List.copyOf(next);
+        }
+        return variants;
+    }
+}
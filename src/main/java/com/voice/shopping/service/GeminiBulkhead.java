@@ -0,0 +1,172 @@
+package com.voice.shopping.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Non-blocking admission control for Gemini calls: at most max-in-flight calls run at once, a bounded
+// FIFO queue holds the overflow until a slot frees up or the caller's wait deadline passes, and anything
+// beyond that is shed immediately so callers can take their local fallback.
+@Slf4j
+@Component
+public class GeminiBulkhead implements MeterBinder {
+
+    private final Object lock = new Object();
+    private final Deque<QueuedCall<?>> queue = new ArrayDeque<>();
+    private int inFlight;
+
+    private MeterRegistry meterRegistry;
+
+    @Value("${gemini.bulkhead.max-in-flight:16}")
+    private Integer maxInFlight;
+
+    @Value("${gemini.bulkhead.max-queue:100}")
+    private Integer maxQueue;
+
+    // Voice parsing has a local fallback that's better than waiting, so it gives up sooner
+    @Value("${gemini.bulkhead.voice-max-wait:250ms}")
+    private Duration voiceMaxWait;
+
+    @Value("${gemini.bulkhead.max-wait:2s}")
+    private Duration maxWait;
+
+    public <T> CompletableFuture<T> submit(GeminiPromptType type, Supplier<CompletableFuture<T>> call) {
+        QueuedCall<T> queued;
+        synchronized (lock) {
+            if (inFlight < maxInFlight) {
+                inFlight++;
+                queued = null;
+            } else if (queue.size() < maxQueue) {
+                queued = new QueuedCall<>(type, call);
+                queue.addLast(queued);
+            } else {
+                recordShed(type, "queue_full");
+                return CompletableFuture.failedFuture(new RejectedException("Gemini bulkhead queue is full"));
+            }
+        }
+
+        if (queued == null) {
+            return start(call);
+        }
+
+        Duration wait = type == GeminiPromptType.VOICE_PARSE ? voiceMaxWait : maxWait;
+        CompletableFuture.delayedExecutor(wait.toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+            boolean expired;
+            synchronized (lock) {
+                expired = queue.remove(queued);
+            }
+            if (expired) {
+                recordShed(type, "deadline");
+                queued.result.completeExceptionally(
+                        new RejectedException("Gemini bulkhead wait exceeded " + wait.toMillis() + " ms"));
+            }
+        });
+        return queued.result;
+    }
+
+    public int getInFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    public static boolean isRejection(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null && !(cause instanceof RejectedException)) {
+            cause = cause.getCause();
+        }
+        return cause instanceof RejectedException;
+    }
+
+    private <T> CompletableFuture<T> start(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((value, error) -> release());
+        return future;
+    }
+
+    // Hands the freed slot straight to the oldest waiting call instead of decrementing and re-acquiring
+    private void release() {
+        QueuedCall<?> next;
+        synchronized (lock) {
+            next = queue.pollFirst();
+            if (next == null) {
+                inFlight--;
+                return;
+            }
+        }
+        next.run();
+    }
+
+    private void recordShed(GeminiPromptType type, String reason) {
+        log.warn("Shedding {} Gemini call ({})", type.getTagValue(), reason);
+        if (meterRegistry != null) {
+            meterRegistry.counter("gemini.bulkhead.shed", "type", type.getTagValue(), "reason", reason).increment();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        Gauge.builder("gemini.bulkhead.in.flight", this, GeminiBulkhead::getInFlight)
+                .description("Gemini calls currently holding a bulkhead slot")
+                .register(registry);
+        Gauge.builder("gemini.bulkhead.queue.depth", this, GeminiBulkhead::getQueueDepth)
+                .description("Gemini calls waiting for a bulkhead slot")
+                .register(registry);
+    }
+
+    public static class RejectedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public RejectedException(String message) {
+            super(message);
+        }
+    }
+
+    private final class QueuedCall<T> {
+        private final GeminiPromptType type;
+        private final Supplier<CompletableFuture<T>> call;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final long enqueuedAt = System.nanoTime();
+
+        private QueuedCall(GeminiPromptType type, Supplier<CompletableFuture<T>> call) {
+            this.type = type;
+            this.call = call;
+        }
+
+        private void run() {
+            if (meterRegistry != null) {
+                meterRegistry.timer("gemini.bulkhead.queue.wait", "type", type.getTagValue())
+                        .record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+            }
+            start(call).whenComplete((value, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.voice.shopping.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletionException;
+
+// Cost and latency of Gemini HTTP calls per prompt type, exposed through /actuator/metrics
+// (gemini.call.duration, gemini.calls, gemini.request.bytes, gemini.response.bytes, gemini.tokens).
+@Component
+@RequiredArgsConstructor
+public class GeminiMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public Timer.Sample startCall() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void recordCall(GeminiPromptType type, Timer.Sample sample, Throwable error) {
+        String outcome = error == null ? "success" : isTimeout(error) ? "timeout" : "failure";
+        sample.stop(Timer.builder("gemini.call.duration")
+                .description("Gemini HTTP call latency")
+                .tag("type", type.getTagValue())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        meterRegistry.counter("gemini.calls", "type", type.getTagValue(), "outcome", outcome).increment();
+    }
+
+    public void recordRequestBytes(GeminiPromptType type, long bytes) {
+        payloadSummary("gemini.request.bytes", "Gemini request body size", type).record(bytes);
+    }
+
+    public void recordResponseBytes(GeminiPromptType type, long bytes) {
+        payloadSummary("gemini.response.bytes", "Gemini response body size", type).record(bytes);
+    }
+
+    public void recordUsage(GeminiPromptType type, JsonNode usageMetadata) {
+        if (usageMetadata == null || usageMetadata.isMissingNode()) {
+            return;
+        }
+        recordTokens(type, "prompt", usageMetadata.path("promptTokenCount").asLong());
+        recordTokens(type, "output", usageMetadata.path("candidatesTokenCount").asLong());
+        recordTokens(type, "total", usageMetadata.path("totalTokenCount").asLong());
+    }
+
+    private void recordTokens(GeminiPromptType type, String kind, long tokens) {
+        if (tokens > 0) {
+            meterRegistry.counter("gemini.tokens", "type", type.getTagValue(), "kind", kind).increment(tokens);
+        }
+    }
+
+    private DistributionSummary payloadSummary(String name, String description, GeminiPromptType type) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit("bytes")
+                .tag("type", type.getTagValue())
+                .register(meterRegistry);
+    }
+
+    // OkHttp reports both call deadlines and socket timeouts as InterruptedIOException
+    private static boolean isTimeout(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof InterruptedIOException;
+    }
+}
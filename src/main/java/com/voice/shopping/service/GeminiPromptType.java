@@ -0,0 +1,17 @@
+package com.voice.shopping.service;
+
+public enum GeminiPromptType {
+    VOICE_PARSE("voice_parse"),
+    PRODUCT_SUGGESTION("product_suggestion"),
+    RECOMMENDATION("recommendation");
+
+    private final String tagValue;
+
+    GeminiPromptType(String tagValue) {
+        this.tagValue = tagValue;
+    }
+
+    public String getTagValue() {
+        return tagValue;
+    }
+}
@@ -0,0 +1,102 @@
+package com.voice.shopping.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Single-flight layer for Gemini: concurrent callers with a byte-identical prompt share
+// one in-flight HTTP call and all receive its result (or its failure).
+@Slf4j
+@Component
+public class GeminiRequestCoalescer implements MeterBinder {
+
+    private final Map<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final Map<GeminiPromptType, AtomicLong> executedCalls = new EnumMap<>(GeminiPromptType.class);
+    private final Map<GeminiPromptType, AtomicLong> savedCalls = new EnumMap<>(GeminiPromptType.class);
+
+    public GeminiRequestCoalescer() {
+        for (GeminiPromptType type : GeminiPromptType.values()) {
+            executedCalls.put(type, new AtomicLong());
+            savedCalls.put(type, new AtomicLong());
+        }
+    }
+
+    // A given prompt is always sent the same way (plain or streamed), so everyone sharing it expects the same type
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> execute(GeminiPromptType type, String prompt,
+            Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> leader = new CompletableFuture<>();
+        CompletableFuture<T> existing = (CompletableFuture<T>) inFlight.putIfAbsent(prompt, leader);
+
+        if (existing != null) {
+            savedCalls.get(type).incrementAndGet();
+            log.debug("Joining in-flight Gemini {} call", type.getTagValue());
+            // Hand out a copy so one follower can't complete or cancel the shared future
+            return existing.copy();
+        }
+
+        executedCalls.get(type).incrementAndGet();
+        CompletableFuture<T> pending;
+        try {
+            pending = call.get();
+        } catch (RuntimeException e) {
+            pending = CompletableFuture.failedFuture(e);
+        }
+
+        pending.whenComplete((result, error) -> {
+            // Remove before completing so late arrivals start a fresh call instead of reading a stale result
+            inFlight.remove(prompt, leader);
+            if (error != null) {
+                leader.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            } else {
+                leader.complete(result);
+            }
+        });
+        return leader.copy();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        for (GeminiPromptType type : GeminiPromptType.values()) {
+            Map<String, Long> counts = new HashMap<>();
+            counts.put("executed", executedCalls.get(type).get());
+            counts.put("saved", savedCalls.get(type).get());
+            stats.put(type.getTagValue(), counts);
+        }
+        stats.put("inFlight", inFlight.size());
+        return stats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (GeminiPromptType type : GeminiPromptType.values()) {
+            FunctionCounter.builder("gemini.coalescer.calls", executedCalls.get(type), AtomicLong::get)
+                    .tag("type", type.getTagValue())
+                    .tag("result", "executed")
+                    .description("Gemini calls issued or served from an identical in-flight call")
+                    .register(registry);
+            FunctionCounter.builder("gemini.coalescer.calls", savedCalls.get(type), AtomicLong::get)
+                    .tag("type", type.getTagValue())
+                    .tag("result", "saved")
+                    .description("Gemini calls issued or served from an identical in-flight call")
+                    .register(registry);
+        }
+        Gauge.builder("gemini.coalescer.in.flight", inFlight, Map::size)
+                .description("Distinct Gemini prompts currently in flight")
+                .register(registry);
+    }
+
+}
@@ -2,16 +2,32 @@ package com.voice.shopping.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voice.shopping.dto.ParsedVoiceCommand;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
+import okio.BufferedSource;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
@@ -19,6 +35,16 @@ public class GeminiService {
 
     private final OkHttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final VoiceCommandCache voiceCommandCache;
+    private final GeminiRequestCoalescer requestCoalescer;
+    private final CircuitBreaker circuitBreaker;
+    private final LocalIntentParser localIntentParser;
+    private final GeminiMetrics geminiMetrics;
+    private final GeminiBulkhead bulkhead;
+
+    private static final String CIRCUIT_BREAKER_NAME = "gemini";
+    private static final String SOURCE_GEMINI = "gemini";
+    private static final double GEMINI_CONFIDENCE = 1.0;
 
     @Value("${gemini.api.key}")
     private String apiKey;
@@ -26,103 +52,358 @@ public class GeminiService {
     @Value("${gemini.api.model}")
     private String model;
 
+    // Point at the bundled stub (see GeminiStubController) for offline runs and load tests
+    @Value("${gemini.api.base-url:https://generativelanguage.googleapis.com}")
+    private String baseUrl;
+
+    // When set, every successful prompt/response pair is appended here as JSON lines for the stub to replay
+    @Value("${gemini.api.record-file:}")
+    private String recordFile;
+
     @Value("${gemini.api.max-tokens}")
     private Integer maxTokens;
 
-    public GeminiService() {
+    @Value("${gemini.api.max-concurrent-requests:64}")
+    private Integer maxConcurrentRequests;
+
+    // Voice parses use streamGenerateContent and stop reading once the command JSON is complete
+    @Value("${gemini.api.streaming:false}")
+    private boolean streaming;
+
+    @Value("${gemini.api.timeout:10s}")
+    private Duration callTimeout;
+
+    @Value("${app.voice.processing.timeout:5s}")
+    private Duration voiceProcessingTimeout;
+
+    public GeminiService(VoiceCommandCache voiceCommandCache, GeminiRequestCoalescer requestCoalescer,
+            CircuitBreakerRegistry circuitBreakerRegistry, MeterRegistry meterRegistry,
+            LocalIntentParser localIntentParser, GeminiMetrics geminiMetrics, GeminiBulkhead bulkhead) {
         this.httpClient = new OkHttpClient();
         this.objectMapper = new ObjectMapper();
+        this.voiceCommandCache = voiceCommandCache;
+        this.requestCoalescer = requestCoalescer;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER_NAME);
+        this.localIntentParser = localIntentParser;
+        this.geminiMetrics = geminiMetrics;
+        this.bulkhead = bulkhead;
+
+        this.circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            CircuitBreaker.StateTransition transition = event.getStateTransition();
+            log.warn("Gemini circuit breaker moved from {} to {}", transition.getFromState(), transition.getToState());
+            meterRegistry.counter("gemini.circuitbreaker.transitions",
+                    "from", transition.getFromState().name(),
+                    "to", transition.getToState().name()).increment();
+        });
     }
 
-    public Map<String, Object> processVoiceCommand(String query) {
+    @PostConstruct
+    public void configureDispatcher() {
+        // OkHttp allows only 5 concurrent calls per host by default, which would queue async Gemini calls
+        httpClient.dispatcher().setMaxRequests(maxConcurrentRequests);
+        httpClient.dispatcher().setMaxRequestsPerHost(maxConcurrentRequests);
+    }
+
+    public List<ParsedVoiceCommand> processVoiceCommand(String query) {
+        return processVoiceCommandAsync(query).join();
+    }
+
+    // One utterance can name several items ("add milk, eggs and bread"), so a parse is a list of commands
+    public CompletableFuture<List<ParsedVoiceCommand>> processVoiceCommandAsync(String query) {
+        List<ParsedVoiceCommand> cached = voiceCommandCache.get(query);
+        if (cached != null) {
+            log.info("Using cached parse for voice command: {}", query);
+            return CompletableFuture.completedFuture(cached);
+        }
+
         log.info("Attempting Gemini API call for voice command: {}", query);
-        try {
-            String prompt = buildVoiceProcessingPrompt(query);
-            String response = callGeminiAPI(prompt);
-            
-            log.info("Gemini API response received: {}", response);
-            return parseAIResponse(response);
+        String prompt = buildVoiceProcessingPrompt(query);
+        CompletableFuture<List<ParsedVoiceCommand>> parsed = streaming
+                ? streamVoiceCommandsAsync(prompt).thenApply(commands -> {
+                    log.info("Gemini streamed commands received: {}", commands);
+                    return cacheStreamed(query, commands);
+                })
+                : callGeminiAPIAsync(GeminiPromptType.VOICE_PARSE, prompt).thenApply(response -> {
+                    log.info("Gemini API response received: {}", response);
+                    return parseAndCache(query, response);
+                });
+        return parsed
+                .exceptionally(e -> {
+                    if (isCircuitOpen(e)) {
+                        log.warn("Gemini circuit is open - parsing '{}' locally", query);
+                    } else if (GeminiBulkhead.isRejection(e)) {
+                        log.warn("Gemini is at capacity - parsing '{}' locally", query);
+                    } else {
+                        log.error("Gemini API call failed - using fallback parsing", e);
+                        log.error("Error details: {}", e.getMessage());
+                    }
+                    return fallbackProcessing(query);
+                });
+    }
 
-        } catch (Exception e) {
-            log.error("Gemini API call failed - using fallback parsing", e);
-            log.error("Error details: {}", e.getMessage());
-            return fallbackProcessing(query);
+    // Parses many utterances with a single Gemini call; results are in the same order as the queries
+    public CompletableFuture<List<List<ParsedVoiceCommand>>> processVoiceCommandsAsync(List<String> queries) {
+        List<List<ParsedVoiceCommand>> results = new ArrayList<>(queries.size());
+        List<Integer> uncached = new ArrayList<>();
+        for (int i = 0; i < queries.size(); i++) {
+            List<ParsedVoiceCommand> cached = voiceCommandCache.get(queries.get(i));
+            results.add(cached);
+            if (cached == null) {
+                uncached.add(i);
+            }
         }
+
+        if (uncached.isEmpty()) {
+            return CompletableFuture.completedFuture(results);
+        }
+        if (uncached.size() == 1) {
+            int index = uncached.get(0);
+            return processVoiceCommandAsync(queries.get(index)).thenApply(commands -> {
+                results.set(index, commands);
+                return results;
+            });
+        }
+
+        List<String> pending = uncached.stream().map(queries::get).toList();
+        log.info("Attempting one Gemini API call for {} voice commands", pending.size());
+        // The answer holds one command array per utterance, so it needs a proportionally larger output budget
+        return callGeminiAPIAsync(GeminiPromptType.VOICE_PARSE, buildBatchVoiceProcessingPrompt(pending),
+                maxTokens * pending.size())
+                .thenApply(response -> {
+                    log.info("Gemini batch response received: {}", response);
+                    return parseBatchResponse(pending, response);
+                })
+                .exceptionally(e -> {
+                    if (isCircuitOpen(e)) {
+                        log.warn("Gemini circuit is open - parsing {} commands locally", pending.size());
+                    } else if (GeminiBulkhead.isRejection(e)) {
+                        log.warn("Gemini is at capacity - parsing {} commands locally", pending.size());
+                    } else {
+                        log.error("Gemini batch call failed - using fallback parsing: {}", e.getMessage());
+                    }
+                    return pending.stream().map(this::fallbackProcessing).toList();
+                })
+                .thenApply(parsed -> {
+                    for (int i = 0; i < uncached.size(); i++) {
+                        results.set(uncached.get(i), parsed.get(i));
+                    }
+                    return results;
+                });
     }
 
     public String generateRecommendations(String currentItems, String userHistory, String availableProducts) {
-        try {
-            String prompt = String.format(
-                    "STRICT INSTRUCTIONS: You are a smart shopping assistant. You must ONLY recommend products from the provided database list.\n\n" +
-                            "Current shopping list: %s\n" +
-                            "User purchase history: %s\n" +
-                            "Available products in database: [%s]\n\n" +
-                            "RULES:\n" +
-                            "1. ONLY suggest products that appear EXACTLY in the available products list above\n" +
-                            "2. Copy product names EXACTLY as they appear (including capitalization)\n" +
-                            "3. Suggest 4-5 diverse complementary items that go well with current list items\n" +
-                            "4. CRITICAL: Do NOT suggest items already in the current shopping list\n" +
-                            "5. Use smart food pairing and meal planning logic:\n" +
-                            "   - Butter -> suggest Bread, Eggs, Jam, Honey\n" +
-                            "   - Milk -> suggest Cereal, Cookies, Bread, Bananas\n" +
-                            "   - Chicken -> suggest Rice, Broccoli, Onions, Garlic\n" +
-                            "   - Pasta -> suggest Tomato Sauce, Cheese, Basil, Olive Oil\n" +
-                            "   - Eggs -> suggest Bacon, Bread, Cheese, Spinach\n" +
-                            "   - Beef -> suggest Potatoes, Carrots, Onions, Mushrooms\n" +
-                            "6. Think about complete meals, breakfast combinations, cooking needs\n" +
-                            "7. Prioritize variety - suggest items from different categories when possible\n" +
-                            "8. Return only exact product names separated by commas\n" +
-                            "9. If no suitable recommendations from database, return 'none'\n\n" +
-                            "Examples:\n" +
-                            "- Current list: 'Butter', Available: 'Bread, Eggs, Jam' -> suggest: Bread, Eggs, Jam\n" +
-                            "- Current list: 'Chicken Breast', Available: 'Rice, Broccoli, Garlic' -> suggest: Rice, Broccoli, Garlic\n" +
-                            "- Current list: 'Pasta', Available: 'Tomato Sauce, Parmesan Cheese' -> suggest: Tomato Sauce, Parmesan Cheese\n\n" +
-                            "Response (exact product names only):",
-                    currentItems, userHistory, availableProducts);
-
-            log.info("Calling Gemini for recommendations - Current items: {}, History: {}, Available: {}", currentItems, userHistory, availableProducts);
-            String response = callGeminiAPI(prompt);
-            log.info("Gemini response: '{}'", response);
-            
-            return response != null ? response.trim() : "";
+        return generateRecommendationsAsync(currentItems, userHistory, availableProducts).join();
+    }
 
-        } catch (Exception e) {
-            log.error("Error generating recommendations with Gemini: {}", e.getMessage());
-            log.error("Gemini API call failed - check API key and quota", e);
-            return ""; // Empty fallback - no hardcoded items
-        }
+    public CompletableFuture<String> generateRecommendationsAsync(String currentItems, String userHistory, String availableProducts) {
+        String prompt = String.format(
+                "STRICT INSTRUCTIONS: You are a smart shopping assistant. You must ONLY recommend products from the provided database list.\n\n" +
+                        "Current shopping list: %s\n" +
+                        "User purchase history: %s\n" +
+                        "Available products in database: [%s]\n\n" +
+                        "RULES:\n" +
+                        "1. ONLY suggest products that appear EXACTLY in the available products list above\n" +
+                        "2. Copy product names EXACTLY as they appear (including capitalization)\n" +
+                        "3. Suggest 4-5 diverse complementary items that go well with current list items\n" +
+                        "4. CRITICAL: Do NOT suggest items already in the current shopping list\n" +
+                        "5. Use smart food pairing and meal planning logic:\n" +
+                        "   - Butter -> suggest Bread, Eggs, Jam, Honey\n" +
+                        "   - Milk -> suggest Cereal, Cookies, Bread, Bananas\n" +
+                        "   - Chicken -> suggest Rice, Broccoli, Onions, Garlic\n" +
+                        "   - Pasta -> suggest Tomato Sauce, Cheese, Basil, Olive Oil\n" +
+                        "   - Eggs -> suggest Bacon, Bread, Cheese, Spinach\n" +
+                        "   - Beef -> suggest Potatoes, Carrots, Onions, Mushrooms\n" +
+                        "6. Think about complete meals, breakfast combinations, cooking needs\n" +
+                        "7. Prioritize variety - suggest items from different categories when possible\n" +
+                        "8. Return only exact product names separated by commas\n" +
+                        "9. If no suitable recommendations from database, return 'none'\n\n" +
+                        "Examples:\n" +
+                        "- Current list: 'Butter', Available: 'Bread, Eggs, Jam' -> suggest: Bread, Eggs, Jam\n" +
+                        "- Current list: 'Chicken Breast', Available: 'Rice, Broccoli, Garlic' -> suggest: Rice, Broccoli, Garlic\n" +
+                        "- Current list: 'Pasta', Available: 'Tomato Sauce, Parmesan Cheese' -> suggest: Tomato Sauce, Parmesan Cheese\n\n" +
+                        "Response (exact product names only):",
+                currentItems, userHistory, availableProducts);
+
+        log.info("Calling Gemini for recommendations - Current items: {}, History: {}, Available: {}", currentItems, userHistory, availableProducts);
+        return callGeminiAPIAsync(GeminiPromptType.RECOMMENDATION, prompt)
+                .thenApply(response -> {
+                    log.info("Gemini response: '{}'", response);
+                    return response != null ? response.trim() : "";
+                })
+                .exceptionally(e -> {
+                    if (GeminiBulkhead.isRejection(e)) {
+                        // Shed under load; the caller falls back to frequency-based recommendations
+                        log.warn("Gemini is at capacity - skipping AI recommendations");
+                        return "";
+                    }
+                    log.error("Error generating recommendations with Gemini: {}", e.getMessage());
+                    log.error("Gemini API call failed - check API key and quota", e);
+                    return ""; // Empty fallback - no hardcoded items
+                });
     }
 
     public String generateProductSuggestions(String itemName, String availableProducts) {
+        return generateProductSuggestionsAsync(itemName, availableProducts).join();
+    }
+
+    public CompletableFuture<String> generateProductSuggestionsAsync(String itemName, String availableProducts) {
+        String prompt = String.format(
+                "STRICT INSTRUCTIONS: You must ONLY return exact product names from the provided list.\n\n" +
+                        "User requested: '%s'\n" +
+                        "Available products in database: [%s]\n\n" +
+                        "RULES:\n" +
+                        "1. ONLY suggest products that appear EXACTLY in the available products list above\n" +
+                        "2. Copy the product names EXACTLY as they appear (including capitalization)\n" +
+                        "3. If '%s' relates to any products in the list, suggest 1-2 most relevant ones\n" +
+                        "4. If '%s' is not a grocery item, return 'none'\n" +
+                        "5. Separate multiple suggestions with commas\n\n" +
+                        "Examples:\n" +
+                        "- If user wants 'milk' and list contains 'Whole Milk', return: Whole Milk\n" +
+                        "- If user wants 'bread' and list contains 'Whole Wheat Bread', return: Whole Wheat Bread\n" +
+                        "- If user wants 'cat', return: none\n\n" +
+                        "Response (exact product names only):",
+                itemName, availableProducts, itemName, itemName);
+
+        return callGeminiAPIAsync(GeminiPromptType.PRODUCT_SUGGESTION, prompt)
+                .exceptionally(e -> {
+                    if (GeminiBulkhead.isRejection(e)) {
+                        log.warn("Gemini is at capacity - no product suggestions for '{}'", itemName);
+                        return "none";
+                    }
+                    log.error("Error generating product suggestions: {}", e.getMessage());
+                    log.error("Gemini API call failed - check API key and quota", e);
+                    return "none"; // Fallback
+                });
+    }
+
+    private CompletableFuture<String> callGeminiAPIAsync(GeminiPromptType type, String prompt) {
+        return callGeminiAPIAsync(type, prompt, maxTokens);
+    }
+
+    private CompletableFuture<String> callGeminiAPIAsync(GeminiPromptType type, String prompt, int maxOutputTokens) {
+        // Identical prompts issued concurrently share one HTTP call
+        // While the breaker is open calls fail immediately with CallNotPermittedException
+        // Past the bulkhead's in-flight limit calls queue briefly, then get shed to the caller's fallback
+        return requestCoalescer.execute(type, prompt, () -> bulkhead.submit(type, () -> circuitBreaker
+                .executeCompletionStage(() -> enqueueGeminiRequest(type, prompt, maxOutputTokens, deadlineFor(type)))
+                .toCompletableFuture()));
+    }
+
+    private CompletableFuture<List<ParsedVoiceCommand>> streamVoiceCommandsAsync(String prompt) {
+        GeminiPromptType type = GeminiPromptType.VOICE_PARSE;
+        return requestCoalescer.execute(type, prompt, () -> bulkhead.submit(type, () -> circuitBreaker
+                .executeCompletionStage(() -> enqueueStreamingRequest(type, prompt, deadlineFor(type)))
+                .toCompletableFuture()));
+    }
+
+    private Duration deadlineFor(GeminiPromptType type) {
+        return type == GeminiPromptType.VOICE_PARSE ? voiceProcessingTimeout : callTimeout;
+    }
+
+    private boolean isCircuitOpen(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof CallNotPermittedException;
+    }
+
+    private CompletableFuture<String> enqueueGeminiRequest(GeminiPromptType type, String prompt, int maxOutputTokens,
+            Duration deadline) {
+        Request request;
         try {
-            String prompt = String.format(
-                    "STRICT INSTRUCTIONS: You must ONLY return exact product names from the provided list.\n\n" +
-                            "User requested: '%s'\n" +
-                            "Available products in database: [%s]\n\n" +
-                            "RULES:\n" +
-                            "1. ONLY suggest products that appear EXACTLY in the available products list above\n" +
-                            "2. Copy the product names EXACTLY as they appear (including capitalization)\n" +
-                            "3. If '%s' relates to any products in the list, suggest 1-2 most relevant ones\n" +
-                            "4. If '%s' is not a grocery item, return 'none'\n" +
-                            "5. Separate multiple suggestions with commas\n\n" +
-                            "Examples:\n" +
-                            "- If user wants 'milk' and list contains 'Whole Milk', return: Whole Milk\n" +
-                            "- If user wants 'bread' and list contains 'Whole Wheat Bread', return: Whole Wheat Bread\n" +
-                            "- If user wants 'cat', return: none\n\n" +
-                            "Response (exact product names only):",
-                    itemName, availableProducts, itemName, itemName);
-
-            return callGeminiAPI(prompt);
+            request = buildGeminiRequest(prompt, maxOutputTokens);
+            geminiMetrics.recordRequestBytes(type, request.body().contentLength());
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
 
-        } catch (Exception e) {
-            log.error("Error generating product suggestions: {}", e.getMessage());
-            log.error("Gemini API call failed - check API key and quota", e);
-            return "none"; // Fallback
+        Timer.Sample sample = geminiMetrics.startCall();
+        CompletableFuture<String> result = new CompletableFuture<>();
+        result.whenComplete((text, error) -> geminiMetrics.recordCall(type, sample, error));
+
+        Call geminiCall = httpClient.newCall(request);
+        geminiCall.timeout().timeout(deadline.toMillis(), TimeUnit.MILLISECONDS);
+        geminiCall.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    String text = readGeminiResponse(type, response);
+                    recordResponse(prompt, text);
+                    result.complete(text);
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        return result;
+    }
+
+    private CompletableFuture<List<ParsedVoiceCommand>> enqueueStreamingRequest(GeminiPromptType type, String prompt,
+            Duration deadline) {
+        Request request;
+        GeminiStreamReader reader;
+        try {
+            request = buildGeminiRequest(prompt, maxTokens, true);
+            reader = new GeminiStreamReader(objectMapper.getFactory(), SOURCE_GEMINI, GEMINI_CONFIDENCE);
+            geminiMetrics.recordRequestBytes(type, request.body().contentLength());
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
         }
+
+        // For streamed calls the timer stops at the complete command, i.e. it measures time-to-intent
+        Timer.Sample sample = geminiMetrics.startCall();
+        CompletableFuture<List<ParsedVoiceCommand>> result = new CompletableFuture<>();
+        result.whenComplete((commands, error) -> geminiMetrics.recordCall(type, sample, error));
+
+        Call geminiCall = httpClient.newCall(request);
+        geminiCall.timeout().timeout(deadline.toMillis(), TimeUnit.MILLISECONDS);
+        geminiCall.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                // Closing the response early abandons the rest of the stream
+                try (response) {
+                    if (!response.isSuccessful()) {
+                        log.error("Gemini streaming call failed with status: {}", response.code());
+                        throw new IOException("Unexpected code " + response);
+                    }
+                    BufferedSource source = response.body().source();
+                    String line;
+                    while (!reader.isComplete() && (line = source.readUtf8Line()) != null) {
+                        reader.acceptLine(line);
+                    }
+                    geminiMetrics.recordResponseBytes(type, reader.getBytesRead());
+                    geminiMetrics.recordUsage(type, reader.getUsageMetadata());
+                    if (!reader.isComplete()) {
+                        // Truncated output (token limit, dropped connection): the commands read so far may
+                        // be missing items, so fail over to the local parser and keep them out of the cache
+                        throw new IOException("Gemini stream ended after " + reader.getBytesRead()
+                                + " bytes before the command list closed");
+                    }
+                    log.debug("Gemini stream complete after {} bytes", reader.getBytesRead());
+                    result.complete(reader.getCommands());
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        return result;
+    }
+
+    private Request buildGeminiRequest(String prompt, int maxOutputTokens) throws IOException {
+        return buildGeminiRequest(prompt, maxOutputTokens, false);
     }
 
-    private String callGeminiAPI(String prompt) throws IOException {
-        String url = "https://generativelanguage.googleapis.com/v1beta/models/" + model + ":generateContent?key=" + apiKey;
+    private Request buildGeminiRequest(String prompt, int maxOutputTokens, boolean stream) throws IOException {
+        String method = stream ? ":streamGenerateContent?alt=sse&key=" : ":generateContent?key=";
+        String url = baseUrl + "/v1beta/models/" + model + method + apiKey;
 
         Map<String, Object> requestBody = new HashMap<>();
         Map<String, Object> contents = new HashMap<>();
@@ -133,7 +414,7 @@ public class GeminiService {
 
         // Add generation config
         Map<String, Object> generationConfig = new HashMap<>();
-        generationConfig.put("maxOutputTokens", maxTokens);
+        generationConfig.put("maxOutputTokens", maxOutputTokens);
         generationConfig.put("temperature", 0.7); // Higher temperature for more creative suggestions
         generationConfig.put("topP", 0.8);
         requestBody.put("generationConfig", generationConfig);
@@ -142,164 +423,172 @@ public class GeminiService {
         log.debug("Gemini API request body: {}", jsonBody);
 
         RequestBody body = RequestBody.create(jsonBody, MediaType.get("application/json; charset=utf-8"));
-        Request request = new Request.Builder()
+        return new Request.Builder()
                 .url(url)
                 .post(body)
                 .addHeader("Content-Type", "application/json")
                 .build();
+    }
 
-        try (Response response = httpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                log.error("Gemini API call failed with status: {}", response.code());
-                throw new IOException("Unexpected code " + response);
+    private void recordResponse(String prompt, String text) {
+        if (recordFile == null || recordFile.isBlank()) {
+            return;
+        }
+        try {
+            String line = objectMapper.writeValueAsString(Map.of("prompt", prompt, "text", text)) + "\n";
+            synchronized (this) {
+                Files.writeString(Path.of(recordFile), line, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
             }
+        } catch (IOException e) {
+            log.warn("Could not record Gemini response to {}: {}", recordFile, e.getMessage());
+        }
+    }
+
+    private String readGeminiResponse(GeminiPromptType type, Response response) throws IOException {
+        if (!response.isSuccessful()) {
+            log.error("Gemini API call failed with status: {}", response.code());
+            throw new IOException("Unexpected code " + response);
+        }
 
-            String responseBody = response.body().string();
-            log.debug("Gemini API raw response: {}", responseBody);
-
-            // Parse Gemini response
-            JsonNode jsonResponse = objectMapper.readTree(responseBody);
-            JsonNode candidates = jsonResponse.get("candidates");
-            if (candidates != null && candidates.isArray() && candidates.size() > 0) {
-                JsonNode content = candidates.get(0).get("content");
-                if (content != null) {
-                    JsonNode contentParts = content.get("parts");
-                    if (contentParts != null && contentParts.isArray() && contentParts.size() > 0) {
-                        JsonNode text = contentParts.get(0).get("text");
-                        if (text != null) {
-                            return text.asText().trim();
-                        }
+        String responseBody = response.body().string();
+        log.debug("Gemini API raw response: {}", responseBody);
+        geminiMetrics.recordResponseBytes(type, responseBody.getBytes(StandardCharsets.UTF_8).length);
+
+        // Parse Gemini response
+        JsonNode jsonResponse = objectMapper.readTree(responseBody);
+        geminiMetrics.recordUsage(type, jsonResponse.path("usageMetadata"));
+        JsonNode candidates = jsonResponse.get("candidates");
+        if (candidates != null && candidates.isArray() && candidates.size() > 0) {
+            JsonNode content = candidates.get(0).get("content");
+            if (content != null) {
+                JsonNode contentParts = content.get("parts");
+                if (contentParts != null && contentParts.isArray() && contentParts.size() > 0) {
+                    JsonNode text = contentParts.get(0).get("text");
+                    if (text != null) {
+                        return text.asText().trim();
                     }
                 }
             }
-            
-            log.warn("Could not parse Gemini response properly");
-            return "";
         }
+        
+        log.warn("Could not parse Gemini response properly");
+        return "";
     }
 
     private String getSystemPrompt() {
         return "You are a shopping assistant. Parse voice commands and respond with ONLY valid JSON. " +
-                "Format: {\"intent\":\"add\", \"item\":\"milk\", \"quantity\":2, \"unit\":\"bottles\", \"category\":\"Dairy\"} " +
+                "Format: a JSON array with one object per item, e.g. " +
+                "[{\"intent\":\"add\", \"item\":\"milk\", \"quantity\":2, \"unit\":\"bottles\", \"category\":\"Dairy\"}] " +
                 "Rules: " +
                 "1. Extract the actual food/product name, not containers " +
                 "2. 'add 2 bottles of milk' -> item='milk', quantity=2, unit='bottles' " +
                 "3. 'add bread' -> item='bread', quantity=1, unit='items' " +
                 "4. 'remove milk' -> intent='remove', item='milk' " +
-                "5. Categories: Dairy, Meat, Vegetables, Fruits, Bakery, Beverages, Snacks, Other " +
-                "6. Return ONLY the JSON object, no markdown, no explanation.";
+                "5. 'add milk, eggs and two loaves of bread' -> three objects, each with intent='add' " +
+                "6. Categories: Dairy, Meat, Vegetables, Fruits, Bakery, Beverages, Snacks, Other " +
+                "7. Return ONLY the JSON array, no markdown, no explanation.";
     }
 
     private String buildVoiceProcessingPrompt(String query) {
         return getSystemPrompt() + "\n\nProcess this shopping command: \"" + query + "\"";
     }
 
-    private Map<String, Object> parseAIResponse(String response) {
-        Map<String, Object> result = new HashMap<>();
+    private String buildBatchVoiceProcessingPrompt(List<String> queries) {
+        StringBuilder prompt = new StringBuilder(getSystemPrompt())
+                .append("\n\nProcess each of these shopping commands. Respond with a JSON array holding one ")
+                .append("array per command, in the same order:\n");
+        for (int i = 0; i < queries.size(); i++) {
+            prompt.append(i + 1).append(". \"").append(queries.get(i)).append("\"\n");
+        }
+        return prompt.toString();
+    }
 
+    private List<ParsedVoiceCommand> parseAndCache(String query, String response) {
         try {
-            // Clean up response - remove markdown formatting
-            response = response.trim();
-            response = response.replaceAll("```json", "").replaceAll("```", "").trim();
-            
-            if (response.startsWith("{") && response.endsWith("}")) {
-                // Parse basic JSON manually for reliability
-                result.put("intent", extractJsonValue(response, "intent"));
-                result.put("item", extractJsonValue(response, "item"));
-                result.put("quantity", Integer.parseInt(extractJsonValue(response, "quantity", "1")));
-                result.put("unit", extractJsonValue(response, "unit", "item"));
-                result.put("category", extractJsonValue(response, "category", "Other"));
-            } else {
-                log.warn("Response doesn't look like JSON, using fallback: {}", response);
-                return fallbackProcessing(response);
+            JsonNode json = readResponseJson(response);
+            List<ParsedVoiceCommand> commands = toCommands(json);
+            if (commands.isEmpty()) {
+                log.warn("Response doesn't look like a command list, using fallback: {}", response);
+                return fallbackProcessing(query);
             }
+            // Only cache real Gemini parses so a transient failure doesn't pin the fallback result
+            voiceCommandCache.put(query, commands);
+            return commands;
         } catch (Exception e) {
             log.error("Error parsing AI response: {}", e.getMessage());
-            return fallbackProcessing(response);
+            return fallbackProcessing(query);
         }
-
-        return result;
     }
 
-    private String extractJsonValue(String json, String key) {
-        return extractJsonValue(json, key, "");
+    private List<ParsedVoiceCommand> cacheStreamed(String query, List<ParsedVoiceCommand> commands) {
+        if (commands.isEmpty()) {
+            log.warn("Gemini stream held no complete command, using fallback for '{}'", query);
+            return fallbackProcessing(query);
+        }
+        voiceCommandCache.put(query, commands);
+        // The coalescer may hand this list to several callers, so each gets its own copies
+        List<ParsedVoiceCommand> copies = new ArrayList<>(commands.size());
+        commands.forEach(command -> copies.add(command.copy()));
+        return copies;
     }
 
-    private String extractJsonValue(String json, String key, String defaultValue) {
-        Pattern pattern = Pattern.compile("\"" + key + "\"\\s*:\\s*\"([^\"]*)\"|\"" + key + "\"\\s*:\\s*(\\d+)");
-        Matcher matcher = pattern.matcher(json);
-        if (matcher.find()) {
-            return matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+    private List<List<ParsedVoiceCommand>> parseBatchResponse(List<String> queries, String response) {
+        JsonNode json;
+        try {
+            json = readResponseJson(response);
+        } catch (Exception e) {
+            log.error("Error parsing AI batch response: {}", e.getMessage());
+            return queries.stream().map(this::fallbackProcessing).toList();
         }
-        return defaultValue;
-    }
 
-    private Map<String, Object> fallbackProcessing(String query) {
-        Map<String, Object> result = new HashMap<>();
-        query = query.toLowerCase();
-
-        // Determine intent
-        if (query.contains("add") || query.contains("put") || query.contains("need")) {
-            result.put("intent", "add");
-        } else if (query.contains("remove") || query.contains("delete") || query.contains("take off")) {
-            result.put("intent", "remove");
-        } else if (query.contains("change") || query.contains("update") || query.contains("modify")) {
-            result.put("intent", "update");
-        } else if (query.contains("find") || query.contains("search") || query.contains("show")) {
-            result.put("intent", "search");
-        } else {
-            result.put("intent", "add"); // Default to add
+        List<List<ParsedVoiceCommand>> results = new ArrayList<>(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            // A short or malformed answer only costs the affected commands a local parse
+            List<ParsedVoiceCommand> commands = json.isArray() && i < json.size() ? toCommands(json.get(i)) : List.of();
+            if (commands.isEmpty()) {
+                log.warn("No Gemini parse for batch command '{}', using fallback", queries.get(i));
+                results.add(fallbackProcessing(queries.get(i)));
+            } else {
+                voiceCommandCache.put(queries.get(i), commands);
+                results.add(commands);
+            }
         }
+        return results;
+    }
 
-        // Extract quantity
-        Pattern quantityPattern = Pattern.compile("(\\d+)");
-        Matcher quantityMatcher = quantityPattern.matcher(query);
-        result.put("quantity", quantityMatcher.find() ? Integer.parseInt(quantityMatcher.group(1)) : 1);
+    private JsonNode readResponseJson(String response) throws IOException {
+        // Clean up response - remove markdown formatting
+        String cleaned = response.trim().replace("```json", "").replace("```", "").trim();
+        return objectMapper.readTree(cleaned);
+    }
 
-        // Extract item name with improved logic
-        String[] words = query.split("\\s+");
-        String extractedItem = null;
-        
-        // Look for pattern "X of Y" where Y is the actual item
-        for (int i = 0; i < words.length - 2; i++) {
-            if (words[i + 1].equals("of")) {
-                extractedItem = words[i + 2];
-                break;
-            }
+    // Accepts a single command object as well as an array of them
+    private List<ParsedVoiceCommand> toCommands(JsonNode json) {
+        List<ParsedVoiceCommand> commands = new ArrayList<>();
+        if (json == null) {
+            return commands;
         }
-        
-        // If no "of" pattern, look for item after quantity
-        if (extractedItem == null) {
-            for (int i = 0; i < words.length; i++) {
-                if (words[i].matches("\\d+") && i + 1 < words.length) {
-                    // Skip container words like bottles, cans, boxes
-                    String candidate = words[i + 1];
-                    if (!java.util.Arrays.asList("bottles", "cans", "boxes", "jars", "bags", "packs").contains(candidate)) {
-                        extractedItem = candidate;
-                        break;
-                    } else if (i + 3 < words.length && words[i + 2].equals("of")) {
-                        // Handle "2 bottles of milk"
-                        extractedItem = words[i + 3];
-                        break;
-                    }
-                }
-            }
+        if (json.isObject()) {
+            json = objectMapper.createArrayNode().add(json);
         }
-
-        // Fallback: take last meaningful word
-        if (extractedItem == null) {
-            for (int i = words.length - 1; i >= 0; i--) {
-                if (!java.util.Arrays.asList("add", "remove", "delete", "put", "my", "list", "to", "from", "bottles", "cans", "boxes").contains(words[i])) {
-                    extractedItem = words[i];
-                    break;
-                }
+        for (JsonNode node : json) {
+            if (!node.isObject() || !node.hasNonNull("intent")) {
+                continue;
             }
+            commands.add(new ParsedVoiceCommand(
+                    node.path("intent").asText(),
+                    node.path("item").asText(""),
+                    node.path("quantity").asInt(1),
+                    node.path("unit").asText("item"),
+                    node.path("category").asText("Other"),
+                    GEMINI_CONFIDENCE,
+                    SOURCE_GEMINI));
         }
-        
-        result.put("item", extractedItem != null ? extractedItem : "unknown");
-        result.put("unit", "item");
-        result.put("category", "Other");
+        return commands;
+    }
 
-        return result;
+    private List<ParsedVoiceCommand> fallbackProcessing(String query) {
+        return localIntentParser.parseAll(query);
     }
 }
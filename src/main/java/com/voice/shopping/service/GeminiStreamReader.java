@@ -0,0 +1,164 @@
+package com.voice.shopping.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.voice.shopping.dto.ParsedVoiceCommand;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Incremental reader for a streamGenerateContent (alt=sse) voice-parse response. Each "data:" event
+// carries the next fragment of the model's text; fragments go straight into a non-blocking Jackson
+// parser and commands are built from its tokens, so the reader is done the moment the top-level JSON
+// value closes - usually well before the model finishes the stream.
+final class GeminiStreamReader {
+
+    private final JsonFactory jsonFactory;
+    private final JsonParser textParser;
+    private final ByteArrayFeeder feeder;
+    private final String source;
+    private final double confidence;
+
+    private final List<ParsedVoiceCommand> commands = new ArrayList<>();
+    private JsonNode usageMetadata;
+    private long bytesRead;
+
+    private boolean started;
+    private boolean complete;
+    private int depth;
+    private int commandDepth;
+    private String field;
+    private ParsedVoiceCommand current;
+
+    GeminiStreamReader(JsonFactory jsonFactory, String source, double confidence) throws IOException {
+        this.jsonFactory = jsonFactory;
+        this.textParser = jsonFactory.createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) textParser.getNonBlockingInputFeeder();
+        this.source = source;
+        this.confidence = confidence;
+    }
+
+    // Accepts one SSE line; anything other than a data event (blank lines, comments) is ignored
+    void acceptLine(String line) throws IOException {
+        bytesRead += line.length() + 1;
+        if (complete || !line.startsWith("data:")) {
+            return;
+        }
+
+        // Parse past the "data:" prefix in place rather than copying the rest of the line
+        StringReader data = new StringReader(line);
+        data.skip(5);
+        try (JsonParser event = jsonFactory.createParser(data)) {
+            JsonToken token;
+            while ((token = event.nextToken()) != null) {
+                if (token != JsonToken.FIELD_NAME) {
+                    continue;
+                }
+                String name = event.getCurrentName();
+                if ("text".equals(name) && event.nextToken() == JsonToken.VALUE_STRING) {
+                    // Read the fragment out of the parser's buffer; it only has to be encoded, not kept
+                    feed(event.getTextCharacters(), event.getTextOffset(), event.getTextLength());
+                } else if ("usageMetadata".equals(name)) {
+                    event.nextToken();
+                    usageMetadata = event.readValueAsTree();
+                }
+            }
+        }
+    }
+
+    boolean isComplete() {
+        return complete;
+    }
+
+    List<ParsedVoiceCommand> getCommands() {
+        return commands;
+    }
+
+    JsonNode getUsageMetadata() {
+        return usageMetadata;
+    }
+
+    long getBytesRead() {
+        return bytesRead;
+    }
+
+    private void feed(char[] text, int offset, int length) throws IOException {
+        int start = offset;
+        int end = offset + length;
+        if (!started) {
+            // Skip any markdown fence or preamble before the JSON itself
+            while (start < end && text[start] != '[' && text[start] != '{') {
+                start++;
+            }
+            if (start == end) {
+                return;
+            }
+            started = true;
+        }
+
+        // The byte feeder needs UTF-8, so this encode is the one copy a fragment costs
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(text, start, end - start));
+        feeder.feedInput(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.arrayOffset() + bytes.limit());
+        JsonToken token;
+        while (!complete && (token = textParser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            handle(token);
+        }
+    }
+
+    private void handle(JsonToken token) throws IOException {
+        switch (token) {
+            case START_ARRAY:
+            case START_OBJECT:
+                depth++;
+                if (depth == 1) {
+                    // [{...}, {...}] or a bare {...}
+                    commandDepth = token == JsonToken.START_ARRAY ? 2 : 1;
+                }
+                if (token == JsonToken.START_OBJECT && depth == commandDepth) {
+                    current = new ParsedVoiceCommand(null, "", 1, "item", "Other", confidence, source);
+                }
+                break;
+            case END_ARRAY:
+            case END_OBJECT:
+                if (token == JsonToken.END_OBJECT && depth == commandDepth && current != null) {
+                    if (current.getIntent() != null) {
+                        commands.add(current);
+                    }
+                    current = null;
+                }
+                depth--;
+                complete = depth == 0;
+                break;
+            case FIELD_NAME:
+                field = depth == commandDepth ? textParser.getCurrentName() : null;
+                break;
+            default:
+                if (current != null && field != null && depth == commandDepth) {
+                    assign(token);
+                }
+                field = null;
+        }
+    }
+
+    private void assign(JsonToken token) throws IOException {
+        switch (field) {
+            case "intent" -> current.setIntent(textParser.getText());
+            case "item" -> current.setItem(textParser.getText());
+            case "unit" -> current.setUnit(textParser.getText());
+            case "category" -> current.setCategory(textParser.getText());
+            case "quantity" -> current.setQuantity(token == JsonToken.VALUE_NUMBER_INT
+                    ? textParser.getIntValue()
+                    : textParser.getValueAsInt(1));
+            default -> {
+            }
+        }
+    }
+}
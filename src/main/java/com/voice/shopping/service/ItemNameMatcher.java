@@ -0,0 +1,188 @@
+package com.voice.shopping.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Fuzzy lookup of a spoken item name against a small in-memory list ("the milk" -> "Whole Milk",
+// "tomatoe" -> "Tomatoes"). Token-based with a bounded edit distance per token.
+public final class ItemNameMatcher {
+
+    static final double MIN_SCORE = 0.6;
+    // Destructive intents (remove, update) need a near-exact match; see confidentMatch
+    static final double CONFIDENT_SCORE = 0.8;
+
+    private ItemNameMatcher() {
+    }
+
+    public static <T> Optional<T> bestMatch(String query, List<T> candidates, Function<T, String> nameOf) {
+        List<String> queryTokens = normalizedTokens(query);
+        if (queryTokens.isEmpty()) {
+            return Optional.empty();
+        }
+
+        T best = null;
+        double bestScore = MIN_SCORE;
+        int bestLength = Integer.MAX_VALUE;
+        for (T candidate : candidates) {
+            String name = nameOf.apply(candidate);
+            if (name == null) {
+                continue;
+            }
+            double score = score(queryTokens, normalizedTokens(name));
+            // Prefer the shorter name on ties so "milk" picks "Milk" over "Milk Chocolate"
+            if (score > bestScore || (score == bestScore && best != null && name.length() < bestLength)) {
+                best = candidate;
+                bestScore = score;
+                bestLength = name.length();
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    // An exact match, or else the only candidate that matches the query in both directions at
+    // CONFIDENT_SCORE or better. Scoring both ways means extra words on either side don't pass, so
+    // "remove milk" never lands on "Milk Chocolate"; a typo like "tomatoe" for "Tomatoes" still does.
+    public static <T> Optional<T> confidentMatch(String query, List<T> candidates, Function<T, String> nameOf) {
+        List<String> queryTokens = normalizedTokens(query);
+        if (queryTokens.isEmpty()) {
+            return Optional.empty();
+        }
+
+        T confident = null;
+        for (T candidate : candidates) {
+            String name = nameOf.apply(candidate);
+            if (name == null) {
+                continue;
+            }
+            List<String> nameTokens = normalizedTokens(name);
+            if (queryTokens.equals(nameTokens)) {
+                return Optional.of(candidate);
+            }
+            if (Math.min(score(queryTokens, nameTokens), score(nameTokens, queryTokens)) >= CONFIDENT_SCORE) {
+                if (confident != null) {
+                    // Two near matches and no exact one: ambiguous
+                    return Optional.empty();
+                }
+                confident = candidate;
+            }
+        }
+        return Optional.ofNullable(confident);
+    }
+
+    // Candidates scoring at least MIN_SCORE, best first - what to offer when confidentMatch is empty
+    public static <T> List<T> closeMatches(String query, List<T> candidates, Function<T, String> nameOf, int limit) {
+        List<String> queryTokens = normalizedTokens(query);
+        if (queryTokens.isEmpty()) {
+            return List.of();
+        }
+        List<Scored<T>> scored = new ArrayList<>();
+        for (T candidate : candidates) {
+            String name = nameOf.apply(candidate);
+            double score = name == null ? 0.0 : score(queryTokens, normalizedTokens(name));
+            if (score >= MIN_SCORE) {
+                scored.add(new Scored<>(candidate, score));
+            }
+        }
+        scored.sort(Comparator.comparingDouble(Scored<T>::score).reversed());
+        return scored.stream().limit(limit).map(Scored::candidate).toList();
+    }
+
+    private record Scored<T>(T candidate, double score) {
+    }
+
+    static double similarity(String query, String name) {
+        return score(normalizedTokens(query), normalizedTokens(name));
+    }
+
+    static double score(List<String> queryTokens, List<String> nameTokens) {
+        if (nameTokens.isEmpty()) {
+            return 0.0;
+        }
+        if (queryTokens.equals(nameTokens)) {
+            return 1.0;
+        }
+
+        double matched = 0.0;
+        for (String queryToken : queryTokens) {
+            double tokenBest = 0.0;
+            for (String nameToken : nameTokens) {
+                tokenBest = Math.max(tokenBest, tokenSimilarity(queryToken, nameToken));
+            }
+            matched += tokenBest;
+        }
+        double score = 0.95 * matched / queryTokens.size();
+        // Each name word the user didn't say makes the match a little less certain
+        int extraTokens = Math.max(0, nameTokens.size() - queryTokens.size());
+        return score - 0.05 * extraTokens;
+    }
+
+    private static double tokenSimilarity(String a, String b) {
+        if (a.equals(b)) {
+            return 1.0;
+        }
+        int allowed = allowedEdits(a, b);
+        if (allowed == 0 || Math.abs(a.length() - b.length()) > allowed) {
+            return 0.0;
+        }
+        int distance = editDistance(a, b, allowed);
+        return distance <= allowed ? 1.0 - (double) distance / Math.max(a.length(), b.length()) : 0.0;
+    }
+
+    static int allowedEdits(String a, String b) {
+        int longer = Math.max(a.length(), b.length());
+        return longer >= 8 ? 2 : longer >= 4 ? 1 : 0;
+    }
+
+    // Optimal string alignment distance, giving up once every cell in a row exceeds the limit
+    static int editDistance(String a, String b, int limit) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], previous2[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    static List<String> normalizedTokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : LocalIntentParser.tokenize(text)) {
+            if (token.equals(",") || token.equals("the") || token.equals("a") || token.equals("an")
+                    || token.equals("of") || token.equals("my")) {
+                continue;
+            }
+            // Cheap singularisation so "tomatoes" matches "Tomato"
+            if (token.length() > 4 && (token.endsWith("oes") || token.endsWith("ches") || token.endsWith("shes")
+                    || token.endsWith("xes") || token.endsWith("sses"))) {
+                token = token.substring(0, token.length() - 2);
+            } else if (token.length() > 3 && token.endsWith("s") && !token.endsWith("ss")) {
+                token = token.substring(0, token.length() - 1);
+            }
+            tokens.add(token);
+        }
+        return tokens;
+    }
+}
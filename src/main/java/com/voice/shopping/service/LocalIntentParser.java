@@ -0,0 +1,361 @@
+package com.voice.shopping.service;
+
+import com.voice.shopping.dto.ParsedVoiceCommand;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Single-pass tokenizer and grammar for simple shopping commands ("add 2 bottles of milk",
+// "remove the eggs"). Produces a typed command with a confidence score so callers can
+// decide whether Gemini is needed at all.
+@Slf4j
+@Component
+public class LocalIntentParser {
+
+    public static final String SOURCE = "local";
+
+    private static final int MAX_QUANTITY_DIGITS = 4;
+
+    private static final Map<String, String> INTENT_WORDS = new HashMap<>();
+    private static final Map<String, String> UNIT_WORDS = new HashMap<>();
+    private static final Map<String, String> CATEGORY_WORDS = new HashMap<>();
+
+    private static final Set<String> FILLER_WORDS = Set.of(
+            "a", "an", "the", "my", "our", "to", "from", "of", "shopping", "please", "some", "me", "for",
+            "i", "we", "want", "wanna", "would", "like", "could", "you", "also", "too", "just", "into", "in",
+            "on", "off", "more", "item", "items", "cart", "basket", "now", "there", "this", "us", "quantity");
+    private static final Set<String> QUESTION_WORDS = Set.of(
+            "what", "what's", "which", "how", "why", "should", "recommend", "suggest", "something", "anything");
+    private static final Set<String> PRONOUNS = Set.of("it", "that", "them", "those", "these");
+    // Item names with "and" in them; never split into two items
+    private static final Set<String> COMPOUND_ITEMS = Set.of(
+            "salt and pepper", "mac and cheese", "macaroni and cheese", "fish and chips", "bread and butter",
+            "rice and beans", "chips and salsa", "half and half", "sweet and sour", "pb and j");
+
+    // A comma is an explicit separator. "and" also appears inside names we don't know about, so a split
+    // on it costs enough to drop below the default local-first threshold (0.8) and let Gemini decide
+    private static final double COMMA_SPLIT_PENALTY = 0.1;
+    private static final double AND_SPLIT_PENALTY = 0.2;
+
+    static {
+        for (String word : new String[] { "add", "put", "need", "buy", "get", "grab", "include", "pick" }) {
+            INTENT_WORDS.put(word, "add");
+        }
+        for (String word : new String[] { "remove", "delete", "drop", "erase", "cancel" }) {
+            INTENT_WORDS.put(word, "remove");
+        }
+        for (String word : new String[] { "change", "update", "modify", "set", "make" }) {
+            INTENT_WORDS.put(word, "update");
+        }
+        for (String word : new String[] { "find", "search", "show", "look" }) {
+            INTENT_WORDS.put(word, "search");
+        }
+
+        String[][] units = {
+                { "bottle", "bottles" }, { "bottles", "bottles" }, { "can", "cans" }, { "cans", "cans" },
+                { "tin", "cans" }, { "tins", "cans" }, { "box", "boxes" }, { "boxes", "boxes" },
+                { "jar", "jars" }, { "jars", "jars" }, { "bag", "bags" }, { "bags", "bags" },
+                { "pack", "packs" }, { "packs", "packs" }, { "packet", "packs" }, { "packets", "packs" },
+                { "carton", "cartons" }, { "cartons", "cartons" }, { "loaf", "loaves" }, { "loaves", "loaves" },
+                { "piece", "pieces" }, { "pieces", "pieces" }, { "bunch", "bunches" }, { "bunches", "bunches" },
+                { "container", "containers" }, { "containers", "containers" },
+                { "kg", "kg" }, { "kilo", "kg" }, { "kilos", "kg" }, { "kilogram", "kg" }, { "kilograms", "kg" },
+                { "g", "g" }, { "gram", "g" }, { "grams", "g" },
+                { "lb", "lb" }, { "lbs", "lb" }, { "pound", "lb" }, { "pounds", "lb" },
+                { "l", "liters" }, { "liter", "liters" }, { "liters", "liters" }, { "litre", "liters" },
+                { "litres", "liters" }, { "ml", "ml" }, { "gallon", "gallons" }, { "gallons", "gallons" } };
+        for (String[] unit : units) {
+            UNIT_WORDS.put(unit[0], unit[1]);
+        }
+
+        String[][] categories = {
+                { "Dairy", "milk", "cheese", "yogurt", "yoghurt", "butter", "cream", "egg", "eggs" },
+                { "Meat", "chicken", "beef", "pork", "fish", "salmon", "turkey", "bacon", "ham", "sausage", "sausages", "steak" },
+                { "Vegetables", "broccoli", "carrot", "carrots", "spinach", "lettuce", "tomato", "tomatoes", "potato",
+                        "potatoes", "onion", "onions", "pepper", "peppers", "garlic", "cucumber", "cucumbers" },
+                { "Fruits", "apple", "apples", "banana", "bananas", "orange", "oranges", "grape", "grapes",
+                        "strawberries", "berries", "lemon", "lemons" },
+                { "Bakery", "bread", "bagel", "bagels", "bun", "buns", "muffin", "muffins", "croissant", "croissants" },
+                { "Beverages", "juice", "coffee", "tea", "soda", "water", "beer", "wine" },
+                { "Snacks", "chips", "cookie", "cookies", "crackers", "candy", "granola", "popcorn" },
+                { "Grains", "rice", "pasta", "flour", "cereal", "oats", "noodles", "quinoa" },
+                { "Canned", "beans", "tuna", "soup" } };
+        // Only ShoppingCategory display names, so local and Gemini parses file items alike; words not
+        // listed here (oil, sugar, ...) fall back to "Other"
+        for (String[] category : categories) {
+            for (int i = 1; i < category.length; i++) {
+                CATEGORY_WORDS.put(category[i], category[0]);
+            }
+        }
+    }
+
+    public ParsedVoiceCommand parse(String utterance) {
+        return parseAll(utterance).get(0);
+    }
+
+    // "add milk, eggs and two loaves of bread" -> one command per item, all sharing the leading verb
+    public List<ParsedVoiceCommand> parseAll(String utterance) {
+        ItemSplit split = splitItems(tokenize(utterance));
+        List<List<String>> segments = split.segments();
+        double listPenalty = segments.size() < 2 ? 0.0 : split.onAnd() ? AND_SPLIT_PENALTY : COMMA_SPLIT_PENALTY;
+
+        List<ParsedVoiceCommand> commands = new ArrayList<>(segments.size());
+        String intent = null;
+        for (List<String> segment : segments) {
+            ParsedVoiceCommand command = parseSegment(segment, intent, listPenalty);
+            // Only a spoken verb carries over; "salt and pepper" shouldn't make the defaulted add look explicit
+            if (segment.stream().anyMatch(token -> INTENT_WORDS.containsKey(token) || token.equals("take"))) {
+                intent = command.getIntent();
+            }
+            commands.add(command);
+        }
+
+        log.debug("Local parsing result for '{}': {}", utterance, commands);
+        return commands;
+    }
+
+    private ParsedVoiceCommand parseSegment(List<String> tokens, String inheritedIntent, double listPenalty) {
+        String intent = null;
+        Integer quantity = null;
+        String unit = null;
+        String category = null;
+        List<String> itemWords = new ArrayList<>();
+        boolean mentionsList = false;
+        boolean question = false;
+        boolean pronoun = false;
+
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+
+            if (Character.isDigit(token.charAt(0))) {
+                Integer digits = quantityValue(token);
+                if (digits != null) {
+                    if (quantity == null) {
+                        quantity = digits;
+                    }
+                    continue;
+                }
+                // Not a plausible quantity ("99999999999", "5's"): keep it as part of the item
+            }
+
+            Integer number = UtteranceNormalizer.numberValue(token);
+            if (number != null) {
+                // "twenty five" -> 25
+                if (number >= 20 && number % 10 == 0 && i + 1 < tokens.size()) {
+                    Integer unitValue = UtteranceNormalizer.numberValue(tokens.get(i + 1));
+                    if (unitValue != null && unitValue > 0 && unitValue < 10) {
+                        number += unitValue;
+                        i++;
+                    }
+                }
+                if (quantity == null) {
+                    quantity = number;
+                }
+                continue;
+            }
+
+            String intentWord = INTENT_WORDS.get(token);
+            if (intentWord != null && intent == null) {
+                intent = intentWord;
+                continue;
+            }
+            if (token.equals("take") && i + 1 < tokens.size() && tokens.get(i + 1).equals("off")) {
+                intent = intent == null ? "remove" : intent;
+                i++;
+                continue;
+            }
+
+            // "can" is only a container after a quantity ("2 cans of soup", "a can of beans")
+            String unitWord = UNIT_WORDS.get(token);
+            if (unitWord != null && unit == null && itemWords.isEmpty()
+                    && (!token.equals("can") || quantity != null || (i > 0 && tokens.get(i - 1).equals("a")))) {
+                unit = unitWord;
+                continue;
+            }
+
+            if (token.equals("list")) {
+                mentionsList = true;
+                continue;
+            }
+            if (QUESTION_WORDS.contains(token)) {
+                question = true;
+                continue;
+            }
+            if (PRONOUNS.contains(token)) {
+                pronoun = true;
+                continue;
+            }
+            if (FILLER_WORDS.contains(token) || token.equals("can")) {
+                continue;
+            }
+
+            itemWords.add(token);
+            if (category == null) {
+                category = CATEGORY_WORDS.get(token);
+            }
+        }
+
+        if (intent == null) {
+            intent = inheritedIntent;
+        }
+        boolean explicitIntent = intent != null;
+        if (itemWords.isEmpty() && mentionsList && (intent == null || "search".equals(intent))) {
+            intent = "list";
+        }
+        if (intent == null) {
+            intent = "add"; // Default to add
+        }
+
+        String item = String.join(" ", itemWords);
+        double confidence = scoreConfidence(intent, explicitIntent, itemWords.size(), listPenalty, question, pronoun);
+
+        return new ParsedVoiceCommand(
+                intent,
+                item.isEmpty() ? "unknown" : item,
+                quantity != null ? quantity : 1,
+                unit != null ? unit : "item",
+                category != null ? category : "Other",
+                confidence,
+                SOURCE);
+    }
+
+    // Splits at "," / "and" once the current segment names an item, so "add, please" stays whole
+    private static ItemSplit splitItems(List<String> tokens) {
+        List<List<String>> segments = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        boolean currentHasItem = false;
+        boolean onAnd = false;
+
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (token.equals("and") && i > 0 && i + 1 < tokens.size()
+                    && COMPOUND_ITEMS.contains(tokens.get(i - 1) + " and " + tokens.get(i + 1))) {
+                current.add(token);
+                continue;
+            }
+            if (token.equals(",") || token.equals("and")) {
+                if (currentHasItem) {
+                    segments.add(current);
+                    current = new ArrayList<>();
+                    currentHasItem = false;
+                    onAnd |= token.equals("and");
+                }
+                continue;
+            }
+            current.add(token);
+            currentHasItem |= isItemWord(token);
+        }
+
+        if (segments.isEmpty() || currentHasItem) {
+            segments.add(current);
+        } else {
+            // Trailing words without an item ("... and that's it") belong to the last item
+            segments.get(segments.size() - 1).addAll(current);
+        }
+        return new ItemSplit(segments, onAnd);
+    }
+
+    private record ItemSplit(List<List<String>> segments, boolean onAnd) {
+    }
+
+    private static boolean isItemWord(String token) {
+        return !Character.isDigit(token.charAt(0))
+                && UtteranceNormalizer.numberValue(token) == null
+                && !INTENT_WORDS.containsKey(token)
+                && !UNIT_WORDS.containsKey(token)
+                && !FILLER_WORDS.contains(token)
+                && !QUESTION_WORDS.contains(token)
+                && !PRONOUNS.contains(token)
+                && !token.equals("list")
+                && !token.equals("take");
+    }
+
+    // Quantities are short digit runs; anything longer would overflow an int and isn't a quantity anyway
+    private static Integer quantityValue(String token) {
+        if (token.length() > MAX_QUANTITY_DIGITS) {
+            return null;
+        }
+        for (int i = 0; i < token.length(); i++) {
+            if (!Character.isDigit(token.charAt(i))) {
+                return null;
+            }
+        }
+        return Integer.parseInt(token);
+    }
+
+    public static String categoryFor(String itemName) {
+        for (String token : tokenize(itemName)) {
+            String category = CATEGORY_WORDS.get(token);
+            if (category != null) {
+                return category;
+            }
+        }
+        return null;
+    }
+
+    private double scoreConfidence(String intent, boolean explicitIntent, int itemWordCount,
+            double listPenalty, boolean question, boolean pronoun) {
+        if ("list".equals(intent)) {
+            return question ? 0.6 : 0.9;
+        }
+        if (itemWordCount == 0) {
+            return pronoun ? 0.2 : 0.1;
+        }
+
+        double confidence = 0.95;
+        if (!explicitIntent) {
+            confidence -= 0.3;
+        }
+        if (itemWordCount > 3) {
+            confidence -= 0.25;
+        }
+        confidence -= listPenalty;
+        if (question) {
+            confidence -= 0.4;
+        }
+        if (pronoun) {
+            confidence -= 0.3;
+        }
+        return Math.max(0.0, confidence);
+    }
+
+    // Lower-cases and splits in one pass; keeps digits, letters and apostrophes, and emits ","
+    // as its own token so list separators survive
+    static List<String> tokenize(String utterance) {
+        List<String> tokens = new ArrayList<>();
+        if (utterance == null) {
+            return tokens;
+        }
+
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < utterance.length(); i++) {
+            char c = utterance.charAt(i);
+            if (Character.isLetterOrDigit(c) || (c == '\'' && current.length() > 0)) {
+                // Split "2kg" / "2x" style tokens at the digit/letter boundary
+                if (current.length() > 0 && Character.isDigit(c) != Character.isDigit(current.charAt(current.length() - 1))
+                        && c != '\'' && current.charAt(current.length() - 1) != '\'') {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                }
+                current.append(Character.toLowerCase(c));
+            } else {
+                if (current.length() > 0) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                }
+                if (c == ',' || c == ';') {
+                    tokens.add(",");
+                }
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+}
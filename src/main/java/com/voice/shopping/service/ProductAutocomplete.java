@@ -0,0 +1,89 @@
+package com.voice.shopping.service;
+
+import com.voice.shopping.dto.AutocompleteSuggestion;
+import com.voice.shopping.model.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Prefix completion over in-stock product names and brands. Every name is indexed under its full text
+// and under each later word ("whole milk" is also found by "milk"), brands under their full text.
+// Each kind of key sits in its own sorted array, searched in rank order (full names, then words, then
+// brands), so a lookup is a binary search plus a scan that stops as soon as the limit is reached -
+// cheap even for one-letter prefixes on very large catalogs. Built once per catalog snapshot.
+final class ProductAutocomplete {
+
+    private final List<SortedKeys> ranks;
+
+    ProductAutocomplete(Collection<Product> products) {
+        List<Map.Entry<String, AutocompleteSuggestion>> fullNames = new ArrayList<>();
+        List<Map.Entry<String, AutocompleteSuggestion>> words = new ArrayList<>();
+        Map<String, AutocompleteSuggestion> brands = new LinkedHashMap<>();
+        for (Product product : products) {
+            if (!Boolean.TRUE.equals(product.getInStock())) {
+                continue;
+            }
+            AutocompleteSuggestion suggestion = new AutocompleteSuggestion(product.getName(), "product",
+                    product.getId(), product.getCategory());
+            String name = ProductCatalogIndex.normalize(product.getName());
+            fullNames.add(Map.entry(name, suggestion));
+            for (int i = name.indexOf(' '); i >= 0; i = name.indexOf(' ', i + 1)) {
+                words.add(Map.entry(name.substring(i + 1), suggestion));
+            }
+            if (product.getBrand() != null && !product.getBrand().isBlank()) {
+                brands.putIfAbsent(ProductCatalogIndex.normalize(product.getBrand()),
+                        new AutocompleteSuggestion(product.getBrand(), "brand", null, null));
+            }
+        }
+        this.ranks = List.of(new SortedKeys(fullNames), new SortedKeys(words), new SortedKeys(new ArrayList<>(brands.entrySet())));
+    }
+
+    List<AutocompleteSuggestion> complete(String prefix, int limit) {
+        String normalized = ProductCatalogIndex.normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        List<AutocompleteSuggestion> results = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (SortedKeys rank : ranks) {
+            rank.collect(normalized, limit, results, seen);
+        }
+        return results;
+    }
+
+    private static final class SortedKeys {
+        private final String[] keys;
+        private final AutocompleteSuggestion[] suggestions;
+
+        private SortedKeys(List<Map.Entry<String, AutocompleteSuggestion>> entries) {
+            entries.sort(Map.Entry.comparingByKey());
+            keys = new String[entries.size()];
+            suggestions = new AutocompleteSuggestion[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                keys[i] = entries.get(i).getKey();
+                suggestions[i] = entries.get(i).getValue();
+            }
+        }
+
+        // Matches are contiguous from the insertion point, shortest completion first
+        private void collect(String prefix, int limit, List<AutocompleteSuggestion> results, Set<String> seen) {
+            int start = Arrays.binarySearch(keys, prefix);
+            if (start < 0) {
+                start = -start - 1;
+            }
+            for (int i = start; i < keys.length && results.size() < limit && keys[i].startsWith(prefix); i++) {
+                AutocompleteSuggestion suggestion = suggestions[i];
+                if (seen.add(suggestion.getType() + ":" + suggestion.getText().toLowerCase())) {
+                    results.add(suggestion);
+                }
+            }
+        }
+    }
+}
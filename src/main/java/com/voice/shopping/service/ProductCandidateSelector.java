@@ -0,0 +1,165 @@
+package com.voice.shopping.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+// Picks the few catalog products worth showing Gemini, so prompt size stays bounded
+// no matter how large the catalog grows.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductCandidateSelector {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.prompt.max-candidates:40}")
+    private Integer maxCandidates;
+
+    @Value("${app.prompt.max-catalog-chars:2000}")
+    private Integer maxCatalogChars;
+
+    public String shortlistForItem(String itemName, CatalogDigest catalog) {
+        Set<String> queryTokens = tokens(itemName);
+        String queryCategory = LocalIntentParser.categoryFor(itemName);
+
+        List<CatalogDigest.Entry> candidates = select(catalog, product -> {
+            int score = 3 * overlap(queryTokens, product.nameTokens()) + overlap(queryTokens, product.brandTokens());
+            if (queryCategory != null && queryCategory.equalsIgnoreCase(product.category())) {
+                score += 2;
+            }
+            return score;
+        }, Set.of());
+
+        return toPromptList(GeminiPromptType.PRODUCT_SUGGESTION, catalog, candidates);
+    }
+
+    public String shortlistForRecommendations(Collection<String> currentItems, Collection<String> historyItems,
+            CatalogDigest catalog) {
+        Set<String> contextTokens = new HashSet<>();
+        currentItems.forEach(name -> contextTokens.addAll(tokens(name)));
+        historyItems.forEach(name -> contextTokens.addAll(tokens(name)));
+
+        // Products already on the list can't be recommended, so don't spend prompt space on them
+        Set<String> excluded = new HashSet<>();
+        currentItems.forEach(name -> excluded.add(name.toLowerCase()));
+
+        List<CatalogDigest.Entry> candidates = select(catalog,
+                product -> overlap(contextTokens, product.nameTokens()) + overlap(contextTokens, product.brandTokens()),
+                excluded);
+
+        return toPromptList(GeminiPromptType.RECOMMENDATION, catalog, candidates);
+    }
+
+    // Related products first, then the rest round-robin across categories so the shortlist stays varied
+    private List<CatalogDigest.Entry> select(CatalogDigest catalog, ToIntFunction<CatalogDigest.Entry> score,
+            Set<String> excludedNames) {
+        List<Map.Entry<CatalogDigest.Entry, Integer>> scored = new ArrayList<>();
+        Map<String, Deque<CatalogDigest.Entry>> byCategory = new LinkedHashMap<>();
+
+        for (CatalogDigest.Entry product : catalog.getEntries()) {
+            if (excludedNames.contains(product.name().toLowerCase())) {
+                continue;
+            }
+            int productScore = score.applyAsInt(product);
+            if (productScore > 0) {
+                scored.add(Map.entry(product, productScore));
+            } else {
+                String category = product.category() != null ? product.category() : "Other";
+                byCategory.computeIfAbsent(category, key -> new ArrayDeque<>()).add(product);
+            }
+        }
+
+        scored.sort(Map.Entry.<CatalogDigest.Entry, Integer>comparingByValue().reversed());
+        List<CatalogDigest.Entry> selected = new ArrayList<>();
+        for (Map.Entry<CatalogDigest.Entry, Integer> entry : scored) {
+            if (selected.size() >= maxCandidates) {
+                break;
+            }
+            selected.add(entry.getKey());
+        }
+
+        while (selected.size() < maxCandidates && !byCategory.isEmpty()) {
+            byCategory.values().removeIf(queue -> {
+                if (selected.size() < maxCandidates) {
+                    selected.add(queue.poll());
+                }
+                return queue.isEmpty();
+            });
+        }
+        return selected;
+    }
+
+    private String toPromptList(GeminiPromptType type, CatalogDigest catalog, List<CatalogDigest.Entry> candidates) {
+        StringBuilder prompt = new StringBuilder();
+        for (CatalogDigest.Entry product : candidates) {
+            String name = product.name();
+            if (prompt.length() > 0 && prompt.length() + name.length() + 2 > maxCatalogChars) {
+                break;
+            }
+            if (prompt.length() > 0) {
+                prompt.append(", ");
+            }
+            prompt.append(name);
+        }
+        String shortlist = prompt.toString();
+
+        long shortlistBytes = shortlist.getBytes(StandardCharsets.UTF_8).length;
+        recordCatalogBytes(type, "full", catalog.getNamesBytes());
+        recordCatalogBytes(type, "shortlist", shortlistBytes);
+
+        log.debug("Shortlisted {} of {} products for {} prompt ({} bytes, catalog v{})",
+                candidates.size(), catalog.size(), type.getTagValue(), shortlistBytes, catalog.getVersion());
+        return shortlist;
+    }
+
+    private void recordCatalogBytes(GeminiPromptType type, String stage, long bytes) {
+        DistributionSummary.builder("gemini.prompt.catalog.bytes")
+                .description("Size of the product list embedded in Gemini prompts")
+                .baseUnit("bytes")
+                .tag("type", type.getTagValue())
+                .tag("stage", stage)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    private static int overlap(Set<String> queryTokens, Set<String> productTokens) {
+        int matches = 0;
+        for (String token : productTokens) {
+            if (queryTokens.contains(token)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    static Set<String> tokens(String text) {
+        Set<String> tokens = new HashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : LocalIntentParser.tokenize(text)) {
+            if (token.length() < 2 || !Character.isLetter(token.charAt(0))) {
+                continue;
+            }
+            // Cheap singularisation so "apples" matches "Apple"
+            tokens.add(token.length() > 3 && token.endsWith("s") ? token.substring(0, token.length() - 1) : token);
+        }
+        return tokens;
+    }
+}
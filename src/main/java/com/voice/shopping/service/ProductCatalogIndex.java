@@ -0,0 +1,290 @@
+package com.voice.shopping.service;
+
+import com.voice.shopping.dto.AutocompleteSuggestion;
+import com.voice.shopping.model.Product;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// In-memory view of the product catalog keyed by id, normalized name, name token, brand and category.
+// The catalog is small and read on every voice command, so writes rebuild an immutable snapshot
+// (copy-on-write) and readers never lock. Writers - full reloads and incremental batches - share the
+// index's monitor, so each one starts from the snapshot the previous one installed.
+@Slf4j
+@Component
+public class ProductCatalogIndex implements MeterBinder {
+
+    private final AtomicLong versions = new AtomicLong();
+    private volatile Snapshot snapshot;
+    private volatile LocalDateTime loadedAt;
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    // Reads the catalog while holding the writer lock: a batch applied between the read and the rebuild
+    // would otherwise be lost, or would be built on the old snapshot and overwrite the reload
+    public synchronized void reload(Supplier<? extends Collection<Product>> loader) {
+        LocalDateTime readStarted = LocalDateTime.now();
+        Collection<Product> products = loader.get();
+        loadedAt = readStarted;
+        snapshot = new Snapshot(versions.incrementAndGet(), products);
+        log.info("Product catalog index built with {} products", products.size());
+    }
+
+    public void upsert(Product product) {
+        apply(List.of(product), List.of());
+    }
+
+    public void remove(String productId) {
+        apply(List.of(), List.of(productId));
+    }
+
+    // Applies a batch of changes with a single snapshot rebuild, so a burst of catalog writes from
+    // another instance doesn't rebuild the snapshot once per product
+    public synchronized void apply(Collection<Product> upserts, Collection<String> removedIds) {
+        Map<String, Product> products = new LinkedHashMap<>(current().byId);
+        boolean changed = false;
+        for (String productId : removedIds) {
+            changed |= products.remove(productId) != null;
+        }
+        for (Product product : upserts) {
+            if (product.getId() != null) {
+                products.put(product.getId(), product);
+                changed = true;
+            }
+        }
+        if (changed) {
+            snapshot = new Snapshot(versions.incrementAndGet(), products.values());
+        }
+    }
+
+    // When the last full reload started reading; catalog sync polls for changes from here, minus a margin
+    // for clock skew between instances
+    public LocalDateTime loadedAt() {
+        return loadedAt;
+    }
+
+    public int size() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.byId.size();
+    }
+
+    public long version() {
+        return current().version;
+    }
+
+    // Built on first use after each catalog change, then shared until the next one
+    public CatalogDigest digest() {
+        Snapshot current = current();
+        CatalogDigest digest = current.digest;
+        if (digest == null) {
+            digest = new CatalogDigest(current.version, current.byId.values());
+            current.digest = digest;
+        }
+        return digest;
+    }
+
+    public List<AutocompleteSuggestion> autocomplete(String prefix, int limit) {
+        Snapshot current = current();
+        ProductAutocomplete autocomplete = current.autocomplete;
+        if (autocomplete == null) {
+            autocomplete = new ProductAutocomplete(current.byId.values());
+            current.autocomplete = autocomplete;
+        }
+        return autocomplete.complete(prefix, limit);
+    }
+
+    public List<Product> all() {
+        return new ArrayList<>(current().byId.values());
+    }
+
+    public List<Product> inStock() {
+        return new ArrayList<>(current().inStock);
+    }
+
+    public Optional<Product> findById(String productId) {
+        return Optional.ofNullable(current().byId.get(productId));
+    }
+
+    public List<Product> findByCategory(String category) {
+        return new ArrayList<>(current().byCategory.getOrDefault(normalize(category), List.of()));
+    }
+
+    // The category spellings actually stored for a case-insensitive category name, so Mongo filters can
+    // use exact (indexable) values instead of a case-insensitive regex
+    public List<String> storedCategories(String category) {
+        return current().byCategory.getOrDefault(normalize(category), List.of()).stream()
+                .map(Product::getCategory)
+                .distinct()
+                .toList();
+    }
+
+    public List<Product> findByBrand(String brand) {
+        return new ArrayList<>(current().byBrand.getOrDefault(normalize(brand), List.of()));
+    }
+
+    // Case-insensitive exact names, in stock only, in catalog order
+    public List<Product> findInStockByNames(Collection<String> names) {
+        Snapshot current = current();
+        Set<Product> matches = new LinkedHashSet<>();
+        for (String name : names) {
+            matches.addAll(current.byName.getOrDefault(normalize(name), List.of()));
+        }
+        return matches.stream().filter(ProductCatalogIndex::isInStock).toList();
+    }
+
+    // Names containing the item first, then typo-tolerant matches, then products sharing a word
+    // (either way round) with it
+    public List<Product> suggestionsFor(String itemName, int limit) {
+        Snapshot current = current();
+        String query = normalize(itemName);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+
+        List<Product> containing = new ArrayList<>();
+        for (Map.Entry<String, List<Product>> entry : current.byName.entrySet()) {
+            if (entry.getKey().contains(query)) {
+                entry.getValue().stream().filter(ProductCatalogIndex::isInStock).forEach(containing::add);
+            }
+        }
+        if (!containing.isEmpty()) {
+            return containing.stream().limit(limit).toList();
+        }
+
+        // Near-misses from speech-to-text before the looser word overlap below
+        List<Product> fuzzy = fuzzyMatches(itemName, limit);
+        if (!fuzzy.isEmpty()) {
+            log.debug("Fuzzy catalog match for '{}': {}", itemName, fuzzy.get(0).getName());
+            return fuzzy;
+        }
+
+        Set<Product> related = new LinkedHashSet<>();
+        for (String word : query.split(" ")) {
+            for (Map.Entry<String, List<Product>> entry : current.byToken.entrySet()) {
+                String token = entry.getKey();
+                if (token.contains(word) || word.contains(token)) {
+                    related.addAll(entry.getValue());
+                }
+            }
+        }
+        return related.stream().filter(ProductCatalogIndex::isInStock).limit(limit).toList();
+    }
+
+    // Typo-tolerant lookup for misheard items ("brocoli", "chedar", "yoghurt"): candidates come from
+    // the deletion index over name and brand words, ranked by how well the whole phrase matches
+    public List<Product> fuzzyMatches(String itemName, int limit) {
+        Snapshot current = current();
+        Set<Product> candidates = new LinkedHashSet<>();
+        for (String token : ItemNameMatcher.normalizedTokens(itemName)) {
+            candidates.addAll(current.fuzzy.lookup(token));
+        }
+
+        Map<Product, Double> scores = new HashMap<>();
+        for (Product product : candidates) {
+            if (!isInStock(product)) {
+                continue;
+            }
+            double score = ItemNameMatcher.similarity(itemName, product.getName());
+            if (product.getBrand() != null) {
+                score = Math.max(score, ItemNameMatcher.similarity(itemName, product.getBrand() + " " + product.getName()));
+            }
+            if (score >= ItemNameMatcher.MIN_SCORE) {
+                scores.put(product, score);
+            }
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Product, Double>comparingByValue().reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : Product.normalizeName(text);
+    }
+
+    private static boolean isInStock(Product product) {
+        return Boolean.TRUE.equals(product.getInStock());
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            throw new IllegalStateException("Product catalog index has not been loaded");
+        }
+        return current;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("product.catalog.index.size", this, ProductCatalogIndex::size)
+                .description("Products held in the in-memory catalog index")
+                .register(registry);
+    }
+
+    private static final class Snapshot {
+        private final Map<String, Product> byId = new LinkedHashMap<>();
+        private final Map<String, List<Product>> byName = new LinkedHashMap<>();
+        private final Map<String, List<Product>> byToken = new HashMap<>();
+        private final Map<String, List<Product>> byBrand = new HashMap<>();
+        private final Map<String, List<Product>> byCategory = new HashMap<>();
+        private final FuzzyTermIndex<Product> fuzzy = new FuzzyTermIndex<>();
+        private final List<Product> inStock;
+        private final long version;
+        private volatile CatalogDigest digest;
+        private volatile ProductAutocomplete autocomplete;
+
+        private Snapshot(long version, Collection<Product> products) {
+            this.version = version;
+            List<Product> available = new ArrayList<>();
+            for (Product product : products) {
+                if (product.getId() == null || product.getName() == null) {
+                    continue;
+                }
+                byId.put(product.getId(), product);
+                String name = normalize(product.getName());
+                byName.computeIfAbsent(name, key -> new ArrayList<>()).add(product);
+                for (String token : name.split(" ")) {
+                    List<Product> tokenProducts = byToken.computeIfAbsent(token, key -> new ArrayList<>());
+                    if (!tokenProducts.contains(product)) {
+                        tokenProducts.add(product);
+                    }
+                }
+                for (String token : ItemNameMatcher.normalizedTokens(product.getName())) {
+                    fuzzy.add(token, product);
+                }
+                if (product.getBrand() != null) {
+                    for (String token : ItemNameMatcher.normalizedTokens(product.getBrand())) {
+                        fuzzy.add(token, product);
+                    }
+                    byBrand.computeIfAbsent(normalize(product.getBrand()), key -> new ArrayList<>()).add(product);
+                }
+                if (product.getCategory() != null) {
+                    byCategory.computeIfAbsent(normalize(product.getCategory()), key -> new ArrayList<>()).add(product);
+                }
+                if (isInStock(product)) {
+                    available.add(product);
+                }
+            }
+            this.inStock = Collections.unmodifiableList(available);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.voice.shopping.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.voice.shopping.dto.ImportResult;
+import com.voice.shopping.model.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Streams a product catalog (NDJSON, or CSV with a header row) into Mongo. Rows are read one at a
+// time and written as unordered bulk upserts keyed on normalizedName, batch by batch, so memory stays
+// flat however large the file is. A bad row is recorded and skipped rather than failing the import.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImportService {
+
+    public enum Format {
+        NDJSON, CSV;
+
+        public static Format from(String contentTypeOrName) {
+            String value = contentTypeOrName == null ? "" : contentTypeOrName.toLowerCase(Locale.ROOT);
+            return value.contains("csv") ? CSV : NDJSON;
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final ProductService productService;
+    private final CatalogVersion catalogVersion;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${app.import.batch-size:1000}")
+    private Integer batchSize;
+
+    @Value("${app.import.max-errors:100}")
+    private Integer maxErrors;
+
+    public ImportResult importProducts(InputStream input, Format format) throws IOException {
+        long started = System.nanoTime();
+        ImportResult result = new ImportResult();
+        // Keyed by normalized name so a name repeated within one batch becomes a single upsert (last row wins)
+        Map<String, Row> batch = new LinkedHashMap<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            List<String> header = null;
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && header == null) {
+                    header = splitCsv(line).stream().map(column -> column.trim().toLowerCase(Locale.ROOT)).toList();
+                    continue;
+                }
+
+                result.setRowsRead(result.getRowsRead() + 1);
+                try {
+                    Product product = format == Format.CSV ? fromCsv(header, splitCsv(line)) : fromJson(line);
+                    batch.put(product.getNormalizedName(), new Row(lineNumber, product));
+                } catch (IllegalArgumentException | IOException e) {
+                    recordError(result, lineNumber, e.getMessage());
+                }
+
+                if (batch.size() >= batchSize) {
+                    writeBatch(batch, result);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch, result);
+        }
+
+        result.setDurationMillis((System.nanoTime() - started) / 1_000_000);
+        log.info("Product import finished: {} rows, {} inserted, {} updated, {} failed in {} ms",
+                result.getRowsRead(), result.getInserted(), result.getUpdated(), result.getFailed(), result.getDurationMillis());
+        if (result.getInserted() + result.getUpdated() > 0) {
+            catalogVersion.bump();
+            productService.refreshCatalogIndex();
+        }
+        return result;
+    }
+
+    private void writeBatch(Map<String, Row> batch, ImportResult result) {
+        List<Row> rows = new ArrayList<>(batch.values());
+        batch.clear();
+
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+        LocalDateTime now = LocalDateTime.now();
+        for (Row row : rows) {
+            Product product = row.product();
+            Update update = new Update()
+                    .set("name", product.getName())
+                    .set("brand", product.getBrand())
+                    .set("price", product.getPrice())
+                    .set("category", product.getCategory())
+                    .set("description", product.getDescription())
+                    .set("imageUrl", product.getImageUrl())
+                    .set("inStock", product.getInStock())
+                    .set("updatedAt", now)
+                    .setOnInsert("createdAt", now);
+            // An upsert copies the normalizedName equality from the query into the inserted document
+            bulkOps.upsert(new Query(Criteria.where("normalizedName").is(product.getNormalizedName())), update);
+        }
+
+        try {
+            count(bulkOps.execute(), result);
+        } catch (BulkOperationException e) {
+            // Unordered: everything but the failed writes went through
+            count(e.getResult(), result);
+            for (BulkWriteError error : e.getErrors()) {
+                recordError(result, rows.get(error.getIndex()).lineNumber(), error.getMessage());
+            }
+        }
+        log.info("Product import progress: {} rows read, {} inserted, {} updated, {} failed",
+                result.getRowsRead(), result.getInserted(), result.getUpdated(), result.getFailed());
+    }
+
+    private void count(BulkWriteResult written, ImportResult result) {
+        result.setInserted(result.getInserted() + written.getUpserts().size());
+        result.setUpdated(result.getUpdated() + written.getMatchedCount());
+    }
+
+    private void recordError(ImportResult result, long lineNumber, String reason) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxErrors) {
+            result.getErrors().add("row " + lineNumber + ": " + reason);
+        }
+    }
+
+    private Product fromJson(String line) throws IOException {
+        JsonNode json = objectMapper.readTree(line);
+        Map<String, String> fields = new HashMap<>();
+        json.fields().forEachRemaining(field -> {
+            if (!field.getValue().isNull()) {
+                fields.put(field.getKey().toLowerCase(Locale.ROOT), field.getValue().asText());
+            }
+        });
+        return toProduct(fields);
+    }
+
+    private Product fromCsv(List<String> header, List<String> values) {
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.size() && i < values.size(); i++) {
+            if (!values.get(i).isEmpty()) {
+                fields.put(header.get(i), values.get(i));
+            }
+        }
+        return toProduct(fields);
+    }
+
+    private Product toProduct(Map<String, String> fields) {
+        String name = fields.get("name");
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        Product product = new Product();
+        product.setName(name.trim());
+        product.setBrand(fields.get("brand"));
+        product.setCategory(fields.get("category"));
+        product.setDescription(fields.get("description"));
+        product.setImageUrl(fields.get("imageurl"));
+        product.setInStock(!fields.containsKey("instock") || Boolean.parseBoolean(fields.get("instock").trim()));
+        if (fields.containsKey("price")) {
+            try {
+                product.setPrice(Double.parseDouble(fields.get("price").trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("price '" + fields.get("price") + "' is not a number");
+            }
+            if (product.getPrice() <= 0) {
+                throw new IllegalArgumentException("price must be positive");
+            }
+        }
+        return product;
+    }
+
+    // One CSV record per line; fields may be double-quoted, with "" for a literal quote
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private record Row(long lineNumber, Product product) {
+    }
+}
@@ -1,13 +1,32 @@
 package com.voice.shopping.service;
 
+import com.mongodb.bulk.BulkWriteResult;
+import com.voice.shopping.dto.AutocompleteSuggestion;
+import com.voice.shopping.dto.ProductPage;
+import com.voice.shopping.dto.SearchFacets;
 import com.voice.shopping.model.Product;
+import com.voice.shopping.repository.ProductCriteriaBuilder;
 import com.voice.shopping.repository.ProductRepository;
+import com.voice.shopping.repository.ProductSort;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -17,10 +36,27 @@ import java.util.stream.Collectors;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ProductCatalogIndex catalogIndex;
+    private final CategoryClassifier categoryClassifier;
+    private final SearchFacetCache facetCache;
+    private final CatalogVersion catalogVersion;
 
     @Value("${app.search.max-results}")
     private Integer maxResults;
 
+    @Value("${app.search.max-page-size:100}")
+    private Integer maxPageSize;
+
+    @Value("${app.search.facets.price-buckets:0,2,5,10,20}")
+    private List<Double> priceBuckets;
+
+    @Value("${app.search.autocomplete.limit:8}")
+    private Integer autocompleteLimit;
+
+    @Value("${app.search.autocomplete.max-limit:20}")
+    private Integer maxAutocompleteLimit;
+
     public List<Product> searchProducts(String query, String brand, Double maxPrice) {
         log.debug("Searching products with query: {}, brand: {}, maxPrice: {}", query, brand, maxPrice);
 
@@ -28,7 +64,7 @@ public class ProductService {
 
         if (query == null || query.trim().isEmpty()) {
             // Return all products if no query
-            products = productRepository.findByInStockTrue();
+            products = catalog().inStock();
         } else {
             // Enhanced intelligent search
             products = performIntelligentSearch(query, brand, maxPrice);
@@ -40,174 +76,244 @@ public class ProductService {
                 .collect(Collectors.toList());
     }
 
+    // /api/search: the same query rules as searchProducts, but sorted, limited and paginated in Mongo
+    public ProductPage searchProductsPage(String query, String brand, Double maxPrice, ProductSort sort,
+            String cursor, Integer limit) {
+        log.debug("Searching product page with query: {}, brand: {}, maxPrice: {}, sort: {}", query, brand, maxPrice, sort);
+        SearchScope scope = scopeFor(query, brand, maxPrice);
+        return productRepository.findPage(scope.text(), scope.filter(), sort, cursor, pageSize(limit));
+    }
+
+    // Counts for everything the search matches, not just the current page
+    public SearchFacets searchFacets(String query, String brand, Double maxPrice) {
+        SearchScope scope = scopeFor(query, brand, maxPrice);
+        String key = catalog().version() + "|" + scope.text() + "|" + scope.filter().getCriteriaObject();
+        return facetCache.get(key, () -> productRepository.findFacets(scope.text(), scope.filter(), priceBuckets));
+    }
+
+    private record SearchScope(String text, Criteria filter) {
+    }
+
+    private SearchScope scopeFor(String query, String brand, Double maxPrice) {
+        ProductCriteriaBuilder filter = ProductCriteriaBuilder.products().brand(brand).maxPrice(maxPrice);
+        if (query == null || query.trim().isEmpty()) {
+            return new SearchScope(null, filter.inStock(true).build());
+        }
+
+        String normalizedQuery = normalizeQuery(query);
+        List<String> categories = categoryClassifier.classify(normalizedQuery).stream()
+                .flatMap(match -> catalog().storedCategories(match.category()).stream())
+                .distinct()
+                .toList();
+        if (!categories.isEmpty()) {
+            return new SearchScope(null, filter.categories(categories).build());
+        }
+        return new SearchScope(normalizedQuery, filter.build());
+    }
+
+    public ProductPage searchProductsByCategoryPage(String category, ProductSort sort, String cursor, Integer limit) {
+        log.debug("Searching product page by category: {}", category);
+        List<String> categories = catalog().storedCategories(category);
+        Criteria filter = ProductCriteriaBuilder.products()
+                .categories(categories.isEmpty() ? List.of(category) : categories)
+                .build();
+        return productRepository.findPage(null, filter, sort, cursor, pageSize(limit));
+    }
+
     private List<Product> performIntelligentSearch(String query, String brand, Double maxPrice) {
-        String normalizedQuery = query.toLowerCase().trim();
-        
-        // Category-based search patterns
-        if (normalizedQuery.contains("meat") || normalizedQuery.contains("protein") || 
-            normalizedQuery.contains("chicken") || normalizedQuery.contains("beef") || 
-            normalizedQuery.contains("pork") || normalizedQuery.contains("fish")) {
-            return searchByCategory("Meat", brand, maxPrice);
-        } else if (normalizedQuery.contains("dairy") || normalizedQuery.contains("milk") || 
-                   normalizedQuery.contains("cheese") || normalizedQuery.contains("yogurt") || 
-                   normalizedQuery.contains("butter")) {
-            return searchByCategory("Dairy", brand, maxPrice);
-        } else if (normalizedQuery.contains("vegetable") || normalizedQuery.contains("veggie") || 
-                   normalizedQuery.contains("green") || normalizedQuery.contains("fresh produce")) {
-            return searchByCategory("Vegetables", brand, maxPrice);
-        } else if (normalizedQuery.contains("fruit") || normalizedQuery.contains("apple") || 
-                   normalizedQuery.contains("banana") || normalizedQuery.contains("orange")) {
-            return searchByCategory("Fruits", brand, maxPrice);
-        } else if (normalizedQuery.contains("bakery") || normalizedQuery.contains("bread") || 
-                   normalizedQuery.contains("baked") || normalizedQuery.contains("pastry")) {
-            return searchByCategory("Bakery", brand, maxPrice);
-        } else if (normalizedQuery.contains("beverage") || normalizedQuery.contains("drink") || 
-                   normalizedQuery.contains("juice") || normalizedQuery.contains("soda")) {
-            return searchByCategory("Beverages", brand, maxPrice);
-        } else if (normalizedQuery.contains("snack") || normalizedQuery.contains("chip") || 
-                   normalizedQuery.contains("cookie") || normalizedQuery.contains("candy")) {
-            return searchByCategory("Snacks", brand, maxPrice);
-        } else if (normalizedQuery.startsWith("show me ") || normalizedQuery.startsWith("find ") || 
-                   normalizedQuery.startsWith("get ") || normalizedQuery.startsWith("search ")) {
-            // Handle descriptive queries like "show me meat products"
-            String cleanQuery = normalizedQuery
-                    .replaceFirst("^(show me |find |get |search )", "")
-                    .replaceAll("\\s+products?\\s*$", "")
-                    .trim();
-            return performIntelligentSearch(cleanQuery, brand, maxPrice);
-        } else if (brand != null || maxPrice != null) {
-            // Use complex search with filters
-            return productRepository.findBySearchCriteria(query, brand, maxPrice);
+        String normalizedQuery = normalizeQuery(query);
+
+        // Category-based search, best matching category first
+        List<CategoryClassifier.CategoryMatch> categories = categoryClassifier.classify(normalizedQuery);
+        if (!categories.isEmpty()) {
+            List<Product> products = new ArrayList<>();
+            for (CategoryClassifier.CategoryMatch match : categories) {
+                products.addAll(searchByCategory(match.category(), brand, maxPrice));
+            }
+            return products;
         } else {
-            // Enhanced text search - search in name, description, and category
-            return productRepository.findByTextSearch(query);
+            // Text search in name, brand and description, best matches first and limited in Mongo
+            return productRepository.findPage(normalizedQuery,
+                    ProductCriteriaBuilder.products().brand(brand).maxPrice(maxPrice).build(),
+                    ProductSort.RELEVANCE, null, maxResults).getProducts();
         }
     }
 
+    // Descriptive queries like "show me meat products"
+    private String normalizeQuery(String query) {
+        return query.toLowerCase().trim()
+                .replaceFirst("^(show me |find |get |search )", "")
+                .replaceAll("\\s+products?\\s*$", "")
+                .trim();
+    }
+
+    private int pageSize(Integer limit) {
+        return limit == null || limit < 1 ? maxResults : Math.min(limit, maxPageSize);
+    }
+
     private List<Product> searchByCategory(String category, String brand, Double maxPrice) {
+        List<Product> products = catalog().findByCategory(category);
         if (brand != null || maxPrice != null) {
-            return productRepository.findBySearchCriteria(null, brand, maxPrice)
-                    .stream()
-                    .filter(p -> p.getCategory().equalsIgnoreCase(category))
+            return products.stream()
+                    .filter(p -> brand == null || brand.equals(p.getBrand()))
+                    .filter(p -> maxPrice == null || (p.getPrice() != null && p.getPrice() <= maxPrice))
                     .collect(Collectors.toList());
-        } else {
-            return productRepository.findByCategoryIgnoreCase(category);
         }
+        return products;
     }
 
     public List<Product> searchProductsByCategory(String category) {
         log.debug("Searching products by category: {}", category);
-        return productRepository.findByCategoryIgnoreCase(category);
+        return catalog().findByCategory(category);
     }
 
     public List<Product> getProductSuggestions(String itemName) {
         log.debug("Getting product suggestions for: {}", itemName);
-        
-        // First try exact substring match (current logic)
-        List<Product> exactMatches = productRepository.findByNameContainingIgnoreCaseAndInStockTrue(itemName);
-        
-        if (!exactMatches.isEmpty()) {
-            return exactMatches.stream().limit(5).collect(Collectors.toList());
-        }
-        
-        // If no exact matches, try reverse matching (product name contains the search term)
-        List<Product> allProducts = productRepository.findByInStockTrue();
-        List<Product> reverseMatches = allProducts.stream()
-                .filter(product -> product.getName().toLowerCase().contains(itemName.toLowerCase()) || 
-                                 itemName.toLowerCase().contains(product.getName().toLowerCase()) ||
-                                 isRelatedProduct(itemName.toLowerCase(), product.getName().toLowerCase()))
-                .limit(5)
-                .collect(Collectors.toList());
-                
-        return reverseMatches;
+        return catalog().suggestionsFor(itemName, 5);
     }
-    
-    private boolean isRelatedProduct(String searchTerm, String productName) {
-        // Handle common product variations
-        String[] searchWords = searchTerm.split("\\s+");
-        String[] productWords = productName.toLowerCase().split("\\s+");
-        
-        // Check if any search word matches any product word
-        for (String searchWord : searchWords) {
-            for (String productWord : productWords) {
-                if (searchWord.equals(productWord) || 
-                    productWord.contains(searchWord) || 
-                    searchWord.contains(productWord)) {
-                    return true;
-                }
-            }
-        }
-        
-        return false;
+
+    public List<AutocompleteSuggestion> autocomplete(String prefix, Integer limit) {
+        int size = limit == null || limit < 1 ? autocompleteLimit : Math.min(limit, maxAutocompleteLimit);
+        return catalog().autocomplete(prefix, size);
     }
 
     public Product saveProduct(Product product) {
         log.debug("Saving product: {}", product.getName());
-        return productRepository.save(product);
+        // Never trust a client-supplied normalizedName
+        product.setNormalizedName(Product.normalizeName(product.getName()));
+        // Other instances polling for catalog changes pick up products by updatedAt
+        product.setUpdatedAt(LocalDateTime.now());
+        Product saved = productRepository.save(product);
+        catalogVersion.bump();
+        catalog().upsert(saved);
+        return saved;
     }
 
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return catalog().all();
+    }
+
+    public CatalogDigest getCatalogDigest() {
+        return catalog().digest();
     }
     
     public List<Product> getProductsByNames(List<String> productNames) {
         log.debug("Getting products by names: {}", productNames);
-        List<Product> allProducts = productRepository.findByInStockTrue();
-        return allProducts.stream()
-                .filter(product -> productNames.stream()
-                        .anyMatch(name -> product.getName().equalsIgnoreCase(name.trim())))
-                .collect(Collectors.toList());
+        return catalog().findInStockByNames(productNames);
+    }
+
+    // One indexed $in query; results follow the order of the requested names
+    public List<Product> findProductsByNames(List<String> productNames) {
+        List<String> normalizedNames = productNames.stream()
+                .map(Product::normalizeName)
+                .filter(name -> name != null && !name.isEmpty())
+                .distinct()
+                .toList();
+        log.debug("Looking up {} products by normalized name", normalizedNames.size());
+
+        Map<String, Product> byName = productRepository.findByNormalizedNameInAndInStockTrue(normalizedNames).stream()
+                .collect(Collectors.toMap(Product::getNormalizedName, product -> product, (first, second) -> first));
+        return normalizedNames.stream()
+                .map(byName::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // Fills normalizedName on products written before the field existed, then makes it unique. If the
+    // catalog already holds duplicate names the index is created non-unique instead, so startup survives.
+    public void ensureNormalizedNames() {
+        List<Product> missing = mongoTemplate.find(
+                new Query(Criteria.where("normalizedName").exists(false).and("name").ne(null)), Product.class);
+        if (!missing.isEmpty()) {
+            BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class);
+            for (Product product : missing) {
+                bulkOps.updateOne(new Query(Criteria.where("_id").is(product.getId())),
+                        new Update().set("normalizedName", Product.normalizeName(product.getName())));
+            }
+            BulkWriteResult result = bulkOps.execute();
+            log.info("Backfilled normalizedName on {} products", result.getModifiedCount());
+        }
+
+        IndexOperations indexOps = mongoTemplate.indexOps(Product.class);
+        try {
+            indexOps.ensureIndex(new Index("normalizedName", Sort.Direction.ASC).named("normalizedName").unique().sparse());
+        } catch (DataAccessException e) {
+            log.warn("Duplicate product names prevent a unique normalizedName index, creating a plain one: {}", e.getMessage());
+            indexOps.ensureIndex(new Index("normalizedName", Sort.Direction.ASC).named("normalizedName").sparse());
+        }
     }
 
     public Optional<Product> getProductById(String productId) {
         log.debug("Fetching product by ID: {}", productId);
-        return productRepository.findById(productId);
+        Optional<Product> indexed = catalog().findById(productId);
+        return indexed.isPresent() ? indexed : productRepository.findById(productId);
+    }
+
+    public void refreshCatalogIndex() {
+        catalogIndex.reload(productRepository::findAll);
+    }
+
+    // Built on first use so lookups before startup finishes still see the catalog
+    private ProductCatalogIndex catalog() {
+        if (!catalogIndex.isLoaded()) {
+            synchronized (catalogIndex) {
+                if (!catalogIndex.isLoaded()) {
+                    refreshCatalogIndex();
+                }
+            }
+        }
+        return catalogIndex;
     }
 
     public void initializeSampleProducts() {
         if (productRepository.count() == 0) {
             log.info("Initializing sample products for search functionality...");
 
-            // Dairy products
-            productRepository.save(new Product("Whole Milk", "Fresh Farm", 4.99, "Dairy", "Fresh organic whole milk"));
-            productRepository.save(new Product("Greek Yogurt", "Chobani", 5.49, "Dairy", "Creamy Greek yogurt"));
-            productRepository.save(new Product("Cheddar Cheese", "Kraft", 3.99, "Dairy", "Sharp cheddar cheese"));
-            productRepository.save(new Product("Butter", "Land O Lakes", 4.29, "Dairy", "Unsalted butter"));
-
-            // Meat products
-            productRepository.save(new Product("Chicken Breast", "Perdue", 8.99, "Meat", "Boneless chicken breast"));
-            productRepository.save(new Product("Ground Beef", "Angus", 6.99, "Meat", "Lean ground beef"));
-            productRepository.save(new Product("Salmon Fillet", "Wild Catch", 12.99, "Meat", "Fresh Atlantic salmon"));
-
-            // Vegetables
-            productRepository.save(new Product("Broccoli", "Green Valley", 2.49, "Vegetables", "Fresh broccoli crowns"));
-            productRepository.save(new Product("Carrots", "Garden Fresh", 1.99, "Vegetables", "Organic baby carrots"));
-            productRepository.save(new Product("Spinach", "Leafy Greens", 3.49, "Vegetables", "Fresh baby spinach"));
-            productRepository.save(new Product("Bell Peppers", "Farm Fresh", 2.99, "Vegetables", "Colorful bell peppers"));
-
-            // Fruits
-            productRepository.save(new Product("Bananas", "Tropical", 1.29, "Fruits", "Ripe yellow bananas"));
-            productRepository.save(new Product("Apples", "Orchard Best", 3.99, "Fruits", "Honeycrisp apples"));
-            productRepository.save(new Product("Oranges", "Citrus Co", 4.49, "Fruits", "Navel oranges"));
-
-            // Bakery
-            productRepository.save(new Product("Whole Wheat Bread", "Wonder", 2.99, "Bakery", "Whole grain bread"));
-            productRepository.save(new Product("Bagels", "Einstein", 4.99, "Bakery", "Everything bagels"));
-
-            // Beverages
-            productRepository.save(new Product("Orange Juice", "Tropicana", 3.99, "Beverages", "100% pure orange juice"));
-            productRepository.save(new Product("Coffee", "Starbucks", 7.99, "Beverages", "Ground coffee beans"));
-
-            // Snacks
-            productRepository.save(new Product("Potato Chips", "Lays", 2.99, "Snacks", "Classic potato chips"));
-            productRepository.save(new Product("Granola Bars", "Nature Valley", 4.99, "Snacks", "Crunchy granola bars"));
-
-            // Pantry items
-            productRepository.save(new Product("Rice", "Uncle Ben's", 3.49, "Pantry", "Long grain white rice"));
-            productRepository.save(new Product("Pasta", "Barilla", 1.99, "Pantry", "Spaghetti pasta"));
-            productRepository.save(new Product("Olive Oil", "Bertolli", 8.99, "Pantry", "Extra virgin olive oil"));
+            // One bulk insert instead of a round trip per product
+            productRepository.saveAll(List.of(
+                    // Dairy products
+                    new Product("Whole Milk", "Fresh Farm", 4.99, "Dairy", "Fresh organic whole milk"),
+                    new Product("Greek Yogurt", "Chobani", 5.49, "Dairy", "Creamy Greek yogurt"),
+                    new Product("Cheddar Cheese", "Kraft", 3.99, "Dairy", "Sharp cheddar cheese"),
+                    new Product("Butter", "Land O Lakes", 4.29, "Dairy", "Unsalted butter"),
+
+                    // Meat products
+                    new Product("Chicken Breast", "Perdue", 8.99, "Meat", "Boneless chicken breast"),
+                    new Product("Ground Beef", "Angus", 6.99, "Meat", "Lean ground beef"),
+                    new Product("Salmon Fillet", "Wild Catch", 12.99, "Meat", "Fresh Atlantic salmon"),
+
+                    // Vegetables
+                    new Product("Broccoli", "Green Valley", 2.49, "Vegetables", "Fresh broccoli crowns"),
+                    new Product("Carrots", "Garden Fresh", 1.99, "Vegetables", "Organic baby carrots"),
+                    new Product("Spinach", "Leafy Greens", 3.49, "Vegetables", "Fresh baby spinach"),
+                    new Product("Bell Peppers", "Farm Fresh", 2.99, "Vegetables", "Colorful bell peppers"),
+
+                    // Fruits
+                    new Product("Bananas", "Tropical", 1.29, "Fruits", "Ripe yellow bananas"),
+                    new Product("Apples", "Orchard Best", 3.99, "Fruits", "Honeycrisp apples"),
+                    new Product("Oranges", "Citrus Co", 4.49, "Fruits", "Navel oranges"),
+
+                    // Bakery
+                    new Product("Whole Wheat Bread", "Wonder", 2.99, "Bakery", "Whole grain bread"),
+                    new Product("Bagels", "Einstein", 4.99, "Bakery", "Everything bagels"),
+
+                    // Beverages
+                    new Product("Orange Juice", "Tropicana", 3.99, "Beverages", "100% pure orange juice"),
+                    new Product("Coffee", "Starbucks", 7.99, "Beverages", "Ground coffee beans"),
+
+                    // Snacks
+                    new Product("Potato Chips", "Lays", 2.99, "Snacks", "Classic potato chips"),
+                    new Product("Granola Bars", "Nature Valley", 4.99, "Snacks", "Crunchy granola bars"),
+
+                    // Pantry items
+                    new Product("Rice", "Uncle Ben's", 3.49, "Pantry", "Long grain white rice"),
+                    new Product("Pasta", "Barilla", 1.99, "Pantry", "Spaghetti pasta"),
+                    new Product("Olive Oil", "Bertolli", 8.99, "Pantry", "Extra virgin olive oil")
+            ));
 
             log.info("Sample products initialized successfully - {} products added", productRepository.count());
+            catalogVersion.bump();
+            refreshCatalogIndex();
         } else {
             log.info("Products already exist in database - skipping initialization");
         }
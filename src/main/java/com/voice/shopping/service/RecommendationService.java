@@ -1,6 +1,5 @@
 package com.voice.shopping.service;
 
-import com.voice.shopping.model.Product;
 import com.voice.shopping.model.PurchaseHistory;
 import com.voice.shopping.model.ShoppingItem;
 import com.voice.shopping.repository.PurchaseHistoryRepository;
@@ -11,6 +10,8 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -22,11 +23,17 @@ public class RecommendationService {
     private final ShoppingListService shoppingListService;
     private final GeminiService geminiService;
     private final ProductService productService;
+    private final Executor voiceTaskExecutor;
+    private final ProductCandidateSelector candidateSelector;
 
     @Value("${app.recommendations.max-items}")
     private Integer maxRecommendations;
 
     public Map<String, Object> getRecommendations(String userId) {
+        return getRecommendationsAsync(userId).join();
+    }
+
+    public CompletableFuture<Map<String, Object>> getRecommendationsAsync(String userId) {
         log.debug("Generating recommendations for user: {}", userId);
 
         try {
@@ -41,71 +48,85 @@ public class RecommendationService {
             List<PurchaseHistory> recentHistory = purchaseHistoryRepository
                     .findByUserIdAndPurchaseDateAfter(userId, thirtyDaysAgo);
 
-            String historyStr = recentHistory.stream()
+            List<String> historyItems = recentHistory.stream()
                     .map(PurchaseHistory::getItemName)
                     .distinct()
                     .limit(10)
-                    .collect(Collectors.joining(", "));
+                    .collect(Collectors.toList());
+            String historyStr = String.join(", ", historyItems);
 
             // Generate AI-powered recommendations
-            List<String> suggestions = new ArrayList<>();
+            CompletableFuture<String> aiRecommendations = CompletableFuture.completedFuture(null);
 
             if (!currentItemsStr.isEmpty() || !historyStr.isEmpty()) {
-                // Get all available products from database
-                List<Product> allProducts = productService.getAllProducts();
-                String availableProducts = allProducts.stream()
-                    .map(Product::getName)
-                    .collect(Collectors.joining(", "));
+                // Only the products most related to the list and history go into the prompt
+                List<String> currentItemNames = currentItems.stream()
+                        .map(ShoppingItem::getName)
+                        .collect(Collectors.toList());
+                String availableProducts = candidateSelector.shortlistForRecommendations(
+                        currentItemNames, historyItems, productService.getCatalogDigest());
                 
                 log.info("Calling Gemini for recommendations - Current items: {}, History: {}, Available products: {}", currentItemsStr, historyStr, availableProducts);
-                String aiRecommendations = geminiService.generateRecommendations(currentItemsStr, historyStr, availableProducts);
-                log.info("Gemini response: '{}'", aiRecommendations);
-                
-                if (aiRecommendations != null && !aiRecommendations.trim().isEmpty()) {
-                    // Get current item names for filtering
-                    Set<String> currentItemNames = currentItems.stream()
-                            .map(item -> item.getName().toLowerCase())
-                            .collect(Collectors.toSet());
-                    
-                    suggestions = Arrays.stream(aiRecommendations.split(","))
-                            .map(String::trim)
-                            .filter(s -> !s.isEmpty())
-                            .filter(s -> !currentItemNames.contains(s.toLowerCase())) // Filter out current items
-                            .distinct() // Remove duplicates
-                            .limit(maxRecommendations)
-                            .collect(Collectors.toList());
-                    log.info("Parsed suggestions (after filtering): {}", suggestions);
-                } else {
-                    log.warn("Gemini returned empty/null response");
-                }
+                aiRecommendations = geminiService.generateRecommendationsAsync(currentItemsStr, historyStr, availableProducts);
             }
 
-            // Fallback to frequency-based recommendations if AI fails
-            if (suggestions.isEmpty()) {
-                suggestions = getFrequencyBasedRecommendations(userId);
-                
-                // Filter fallback suggestions too
-                Set<String> currentItemNames = currentItems.stream()
-                        .map(item -> item.getName().toLowerCase())
-                        .collect(Collectors.toSet());
-                
-                suggestions = suggestions.stream()
-                        .filter(item -> !currentItemNames.contains(item.toLowerCase()))
-                        .distinct()
+            return aiRecommendations
+                    .thenApplyAsync(response -> buildRecommendations(userId, currentItems, currentItemsStr, response),
+                            voiceTaskExecutor)
+                    .exceptionally(e -> {
+                        log.error("Error generating recommendations: {}", e.getMessage());
+                        return getDefaultRecommendations();
+                    });
+
+        } catch (Exception e) {
+            log.error("Error generating recommendations: {}", e.getMessage());
+            return CompletableFuture.completedFuture(getDefaultRecommendations());
+        }
+    }
+
+    private Map<String, Object> buildRecommendations(String userId, List<ShoppingItem> currentItems,
+            String currentItemsStr, String aiRecommendations) {
+        List<String> suggestions = new ArrayList<>();
+
+        // Get current item names for filtering
+        Set<String> currentItemNames = currentItems.stream()
+                .map(item -> item.getName().toLowerCase())
+                .collect(Collectors.toSet());
+
+        if (aiRecommendations != null) {
+            log.info("Gemini response: '{}'", aiRecommendations);
+            
+            if (!aiRecommendations.trim().isEmpty()) {
+                suggestions = Arrays.stream(aiRecommendations.split(","))
+                        .map(String::trim)
+                        .filter(s -> !s.isEmpty())
+                        .filter(s -> !currentItemNames.contains(s.toLowerCase())) // Filter out current items
+                        .distinct() // Remove duplicates
+                        .limit(maxRecommendations)
                         .collect(Collectors.toList());
+                log.info("Parsed suggestions (after filtering): {}", suggestions);
+            } else {
+                log.warn("Gemini returned empty/null response");
             }
+        }
 
+        // Fallback to frequency-based recommendations if AI fails
+        if (suggestions.isEmpty()) {
+            suggestions = getFrequencyBasedRecommendations(userId);
+            
+            // Filter fallback suggestions too
+            suggestions = suggestions.stream()
+                    .filter(item -> !currentItemNames.contains(item.toLowerCase()))
+                    .distinct()
+                    .collect(Collectors.toList());
+        }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("suggestions", suggestions);
-            response.put("based_on", !currentItemsStr.isEmpty() ? "current_list" : "history");
 
-            return response;
+        Map<String, Object> response = new HashMap<>();
+        response.put("suggestions", suggestions);
+        response.put("based_on", !currentItemsStr.isEmpty() ? "current_list" : "history");
 
-        } catch (Exception e) {
-            log.error("Error generating recommendations: {}", e.getMessage());
-            return getDefaultRecommendations();
-        }
+        return response;
     }
 
     private List<String> getFrequencyBasedRecommendations(String userId) {
@@ -0,0 +1,79 @@
+package com.voice.shopping.service;
+
+import com.voice.shopping.dto.SearchFacets;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Bounded, TTL-based cache of search facet counts. Keys include the catalog version, so a catalog
+// change makes every cached count unreachable; the TTL covers edits made outside this service.
+@Component
+public class SearchFacetCache implements MeterBinder {
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Value("${app.search.facets.cache.max-entries:200}")
+    private Integer maxEntries;
+
+    @Value("${app.search.facets.cache.ttl:5m}")
+    private Duration ttl;
+
+    private final LinkedHashMap<String, CachedFacets> entries = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedFacets> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public SearchFacets get(String key, Supplier<SearchFacets> loader) {
+        synchronized (entries) {
+            CachedFacets cached = entries.get(key);
+            if (cached != null && System.nanoTime() - cached.expiresAtNanos < 0) {
+                hits.incrementAndGet();
+                return cached.facets;
+            }
+        }
+
+        // Loaded outside the lock; concurrent misses for one key may both query, the last one wins
+        misses.incrementAndGet();
+        SearchFacets facets = loader.get();
+        synchronized (entries) {
+            entries.put(key, new CachedFacets(facets, System.nanoTime() + ttl.toNanos()));
+        }
+        return facets;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("search.facet.cache.requests", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .description("Search facet cache lookups")
+                .register(registry);
+        FunctionCounter.builder("search.facet.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .description("Search facet cache lookups")
+                .register(registry);
+        Gauge.builder("search.facet.cache.size", this, SearchFacetCache::size)
+                .description("Search facet results currently cached")
+                .register(registry);
+    }
+
+    private record CachedFacets(SearchFacets facets, long expiresAtNanos) {
+    }
+}
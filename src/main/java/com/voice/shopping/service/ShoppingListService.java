@@ -4,12 +4,22 @@ import com.voice.shopping.model.ShoppingItem;
 import com.voice.shopping.model.Product;
 import com.voice.shopping.repository.ShoppingItemRepository;
 import lombok.RequiredArgsConstructor;
+import com.mongodb.bulk.BulkWriteResult;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.regex.Pattern;
 
 @Slf4j
 @Service
@@ -18,6 +28,8 @@ public class ShoppingListService {
 
     private final ShoppingItemRepository shoppingItemRepository;
     private final ProductService productService;
+    private final MongoTemplate mongoTemplate;
+    private final VoiceSessionCache voiceSessionCache;
 
     public List<ShoppingItem> getShoppingList(String userId) {
         log.debug("Fetching shopping list for user: {}", userId);
@@ -68,16 +80,86 @@ public class ShoppingListService {
             if (price != null) item.setPrice(price);
             if (brand != null) item.setBrand(brand);
             item.setUpdatedAt(LocalDateTime.now());
-            return shoppingItemRepository.save(item);
+            ShoppingItem saved = shoppingItemRepository.save(item);
+            voiceSessionCache.invalidate(userId);
+            return saved;
         } else {
             // Create new item
             ShoppingItem newItem = new ShoppingItem(userId, itemName, quantity, category, unit != null ? unit : "item", price, brand);
             if (notes != null) newItem.setNotes(notes);
             if (priority != null) newItem.setPriority(priority);
-            return shoppingItemRepository.save(newItem);
+            ShoppingItem saved = shoppingItemRepository.save(newItem);
+            voiceSessionCache.invalidate(userId);
+            return saved;
         }
     }
 
+    // Adds several catalog-resolved items in one unordered bulk upsert instead of a read and a save per item.
+    // Items must carry their product price and brand; repeated names are merged first.
+    public List<ShoppingItem> addItems(String userId, List<ShoppingItem> items) {
+        Map<String, ShoppingItem> merged = new LinkedHashMap<>();
+        for (ShoppingItem item : items) {
+            if (item.getPrice() == null || item.getPrice() <= 0) {
+                throw new RuntimeException("Product '" + item.getName() + "' has no valid price. Cannot add items without pricing information.");
+            }
+            // Merge into a copy so callers' items keep their own quantities
+            ShoppingItem copy = new ShoppingItem(userId, item.getName(), item.getQuantity(), item.getCategory(),
+                    item.getUnit(), item.getPrice(), item.getBrand());
+            copy.setPriority(item.getPriority());
+            merged.merge(item.getName().toLowerCase(), copy, (existing, duplicate) -> {
+                existing.setQuantity(existing.getQuantity() + duplicate.getQuantity());
+                return existing;
+            });
+        }
+        if (merged.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        log.debug("Bulk adding {} items for user: {}", merged.size(), userId);
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ShoppingItem.class);
+        LocalDateTime now = LocalDateTime.now();
+        for (ShoppingItem item : merged.values()) {
+            // Same case-insensitive match as findByUserIdAndNameIgnoreCase, but anchored to the whole name
+            Query query = new Query(Criteria.where("userId").is(userId)
+                    .and("name").regex("^" + Pattern.quote(item.getName()) + "$", "i"));
+            Update update = new Update()
+                    .inc("quantity", item.getQuantity())
+                    .set("price", item.getPrice())
+                    .set("brand", item.getBrand())
+                    .set("updatedAt", now)
+                    .setOnInsert("name", item.getName())
+                    .setOnInsert("category", item.getCategory())
+                    .setOnInsert("unit", item.getUnit() != null ? item.getUnit() : "item")
+                    .setOnInsert("priority", item.getPriority() != null ? item.getPriority() : "medium")
+                    .setOnInsert("completed", false)
+                    .setOnInsert("createdAt", now);
+            bulkOps.upsert(query, update);
+        }
+
+        BulkWriteResult result = bulkOps.execute();
+        voiceSessionCache.invalidate(userId);
+        log.info("Bulk add for user {}: {} inserted, {} updated", userId, result.getUpserts().size(), result.getModifiedCount());
+
+        // Return the stored rows (id, running quantity, createdAt, notes...) rather than the increments,
+        // read back in one query with the same anchored case-insensitive names the upserts matched on
+        List<Pattern> names = merged.values().stream()
+                .map(item -> Pattern.compile("^" + Pattern.quote(item.getName()) + "$", Pattern.CASE_INSENSITIVE))
+                .toList();
+        Map<String, ShoppingItem> stored = new LinkedHashMap<>();
+        for (ShoppingItem item : mongoTemplate.find(
+                new Query(Criteria.where("userId").is(userId).and("name").in(names)), ShoppingItem.class)) {
+            stored.putIfAbsent(item.getName().toLowerCase(), item);
+        }
+        List<ShoppingItem> saved = new ArrayList<>();
+        for (Map.Entry<String, ShoppingItem> entry : merged.entrySet()) {
+            ShoppingItem item = stored.get(entry.getKey());
+            if (item != null) {
+                saved.add(item);
+            }
+        }
+        return saved;
+    }
+
     public ShoppingItem updateItemQuantity(String userId, String itemId, Integer quantity) {
         log.debug("Updating item {} quantity to {} for user: {}", itemId, quantity, userId);
 
@@ -86,7 +168,9 @@ public class ShoppingListService {
             ShoppingItem item = itemOpt.get();
             item.setQuantity(quantity);
             item.setUpdatedAt(LocalDateTime.now());
-            return shoppingItemRepository.save(item);
+            ShoppingItem saved = shoppingItemRepository.save(item);
+            voiceSessionCache.invalidate(userId);
+            return saved;
         } else {
             throw new RuntimeException("Item not found in user's shopping list");
         }
@@ -98,13 +182,15 @@ public class ShoppingListService {
         Optional<ShoppingItem> itemOpt = shoppingItemRepository.findByUserIdAndId(userId, itemId);
         if (itemOpt.isPresent()) {
             shoppingItemRepository.deleteByUserIdAndId(userId, itemId);
+            voiceSessionCache.invalidate(userId);
             return true;
         }
         return false;
     }
 
     public Optional<ShoppingItem> findItemByName(String userId, String itemName) {
-        return shoppingItemRepository.findByUserIdAndNameIgnoreCase(userId, itemName);
+        // Fuzzy match against the cached list snapshot rather than an unanchored regex query
+        return voiceSessionCache.findItem(userId, itemName);
     }
 
     public long getItemCount(String userId) {
@@ -125,7 +211,9 @@ public class ShoppingListService {
             if (completed != null) item.setCompleted(completed);
             
             item.setUpdatedAt(LocalDateTime.now());
-            return shoppingItemRepository.save(item);
+            ShoppingItem saved = shoppingItemRepository.save(item);
+            voiceSessionCache.invalidate(userId);
+            return saved;
         } else {
             throw new RuntimeException("Item not found in user's shopping list");
         }
@@ -167,6 +255,7 @@ public class ShoppingListService {
         log.debug("Clearing shopping list for user: {}", userId);
         List<ShoppingItem> items = shoppingItemRepository.findByUserId(userId);
         shoppingItemRepository.deleteAll(items);
+        voiceSessionCache.invalidate(userId);
     }
 
     public ShoppingItem addItemFromProduct(String userId, String productId, Integer quantity) {
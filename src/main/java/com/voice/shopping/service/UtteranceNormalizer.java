@@ -0,0 +1,71 @@
+package com.voice.shopping.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Canonical form of a spoken command: lower-cased, punctuation stripped,
+// whitespace collapsed and number words ("two", "twenty five") turned into digits.
+public final class UtteranceNormalizer {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^a-z0-9'\\s]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Map<String, Integer> UNITS = new HashMap<>();
+    private static final Map<String, Integer> TENS = new HashMap<>();
+
+    static {
+        String[] units = { "zero", "one", "two", "three", "four", "five", "six", "seven", "eight", "nine", "ten",
+                "eleven", "twelve", "thirteen", "fourteen", "fifteen", "sixteen", "seventeen", "eighteen", "nineteen" };
+        for (int i = 0; i < units.length; i++) {
+            UNITS.put(units[i], i);
+        }
+        String[] tens = { "twenty", "thirty", "forty", "fifty", "sixty", "seventy", "eighty", "ninety" };
+        for (int i = 0; i < tens.length; i++) {
+            TENS.put(tens[i], (i + 2) * 10);
+        }
+        UNITS.put("dozen", 12);
+    }
+
+    private UtteranceNormalizer() {
+    }
+
+    public static String canonicalize(String utterance) {
+        if (utterance == null) {
+            return "";
+        }
+        String cleaned = NON_WORD.matcher(utterance.toLowerCase()).replaceAll(" ");
+        cleaned = WHITESPACE.matcher(cleaned).replaceAll(" ").trim();
+        if (cleaned.isEmpty()) {
+            return cleaned;
+        }
+
+        String[] words = cleaned.split(" ");
+        StringBuilder out = new StringBuilder(cleaned.length());
+        for (int i = 0; i < words.length; i++) {
+            String word = words[i];
+            Integer value = numberValue(word);
+            if (value != null) {
+                // "twenty five" -> 25
+                if (TENS.containsKey(word) && i + 1 < words.length) {
+                    Integer unit = UNITS.get(words[i + 1]);
+                    if (unit != null && unit > 0 && unit < 10) {
+                        value += unit;
+                        i++;
+                    }
+                }
+                word = String.valueOf(value);
+            }
+            if (out.length() > 0) {
+                out.append(' ');
+            }
+            out.append(word);
+        }
+        return out.toString();
+    }
+
+    public static Integer numberValue(String word) {
+        Integer value = UNITS.get(word);
+        return value != null ? value : TENS.get(word);
+    }
+}
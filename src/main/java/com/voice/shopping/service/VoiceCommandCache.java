@@ -0,0 +1,150 @@
+package com.voice.shopping.service;
+
+import com.voice.shopping.dto.ParsedVoiceCommand;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded, TTL-based cache of parsed voice intents keyed by the canonical utterance,
+// so repeated phrases like "add milk" skip the Gemini round trip.
+@Slf4j
+@Component
+public class VoiceCommandCache implements MeterBinder {
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    @Value("${app.voice.cache.max-entries:500}")
+    private Integer maxEntries;
+
+    @Value("${app.voice.cache.ttl:10m}")
+    private Duration ttl;
+
+    private final LinkedHashMap<String, CachedCommand> entries = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedCommand> eldest) {
+            if (size() > maxEntries) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    public List<ParsedVoiceCommand> get(String query) {
+        String key = UtteranceNormalizer.canonicalize(query);
+        synchronized (entries) {
+            CachedCommand cached = entries.get(key);
+            if (cached == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            if (cached.isExpired()) {
+                entries.remove(key);
+                expirations.incrementAndGet();
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            log.debug("Voice command cache hit for '{}'", key);
+            // Callers are free to modify the returned commands
+            return copyOf(cached.commands);
+        }
+    }
+
+    public void put(String query, List<ParsedVoiceCommand> commands) {
+        String key = UtteranceNormalizer.canonicalize(query);
+        if (key.isEmpty()) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new CachedCommand(copyOf(commands), System.nanoTime() + ttl.toNanos()));
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.get());
+        stats.put("expirations", expirations.get());
+        stats.put("size", size());
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hitCount / total);
+        return stats;
+    }
+
+    private static List<ParsedVoiceCommand> copyOf(List<ParsedVoiceCommand> commands) {
+        List<ParsedVoiceCommand> copies = new ArrayList<>(commands.size());
+        for (ParsedVoiceCommand command : commands) {
+            copies.add(command.copy());
+        }
+        return copies;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("voice.command.cache.requests", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .description("Voice command cache lookups")
+                .register(registry);
+        FunctionCounter.builder("voice.command.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .description("Voice command cache lookups")
+                .register(registry);
+        FunctionCounter.builder("voice.command.cache.evictions", evictions, AtomicLong::get)
+                .tag("cause", "size")
+                .description("Voice command cache evictions")
+                .register(registry);
+        FunctionCounter.builder("voice.command.cache.evictions", expirations, AtomicLong::get)
+                .tag("cause", "expired")
+                .description("Voice command cache evictions")
+                .register(registry);
+        Gauge.builder("voice.command.cache.size", this, VoiceCommandCache::size)
+                .description("Parsed voice commands currently cached")
+                .register(registry);
+    }
+
+    private static final class CachedCommand {
+        private final List<ParsedVoiceCommand> commands;
+        private final long expiresAtNanos;
+
+        private CachedCommand(List<ParsedVoiceCommand> commands, long expiresAtNanos) {
+            this.commands = commands;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos > 0;
+        }
+    }
+}
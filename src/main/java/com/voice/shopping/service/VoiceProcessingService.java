@@ -1,18 +1,22 @@
 package com.voice.shopping.service;
 
+import com.voice.shopping.dto.ParsedVoiceCommand;
 import com.voice.shopping.dto.VoiceCommandResponse;
 import com.voice.shopping.model.ShoppingItem;
 import com.voice.shopping.model.Product;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
@@ -22,177 +26,395 @@ public class VoiceProcessingService {
     private final GeminiService geminiService;
     private final ShoppingListService shoppingListService;
     private final ProductService productService;
+    private final Executor voiceTaskExecutor;
+    private final LocalIntentParser localIntentParser;
+    private final ProductCandidateSelector candidateSelector;
+    private final MeterRegistry meterRegistry;
+    private final VoiceSessionCache voiceSessionCache;
+
+    private static final String PARSING_MODE_LOCAL_FIRST = "local-first";
+    private static final String PARSING_MODE_HEDGED = "hedged";
+
+    // "gemini" always asks Gemini; "local-first" only does so when the local parse is unsure;
+    // "hedged" runs both and takes Gemini only if the local parse is unsure and Gemini answers within the budget
+    @Value("${app.voice.parsing.mode:gemini}")
+    private String parsingMode;
+
+    @Value("${app.voice.parsing.local-confidence-threshold:0.8}")
+    private Double localConfidenceThreshold;
+
+    @Value("${app.voice.parsing.hedge-budget:300ms}")
+    private Duration hedgeBudget;
 
     public VoiceCommandResponse processVoiceCommand(String userId, String query) {
+        return processVoiceCommandAsync(userId, query).join();
+    }
+
+    public CompletableFuture<VoiceCommandResponse> processVoiceCommandAsync(String userId, String query) {
+        return processVoiceCommandAsync(userId, query, null, VoiceStageListener.NONE);
+    }
+
+    public CompletableFuture<VoiceCommandResponse> processVoiceCommandAsync(String userId, String query, String context,
+            VoiceStageListener listener) {
         log.info("Processing voice command for user {}: {}", userId, query);
+        voiceSessionCache.rememberContext(userId, context);
+
+        if (PARSING_MODE_LOCAL_FIRST.equalsIgnoreCase(parsingMode)) {
+            List<ParsedVoiceCommand> localCommands = localIntentParser.parseAll(query);
+            if (isConfident(localCommands)) {
+                log.info("Local parse confident - skipping Gemini - {} command(s): {}", localCommands.size(), localCommands);
+                listener.onIntent(localCommands);
+                return executeParsedCommands(userId, localCommands, listener)
+                        .exceptionally(e -> {
+                            log.error("Error executing locally parsed command: {}", e.getMessage());
+                            return new VoiceCommandResponse("error", "Sorry, I couldn't understand that command. Please try again.");
+                        });
+            }
+            log.debug("Local parse below confidence threshold {} - asking Gemini", localConfidenceThreshold);
+        }
+
+        // Use Gemini API for intelligent parsing; the servlet thread is released while the call is in flight
+        CompletableFuture<List<ParsedVoiceCommand>> parsed = PARSING_MODE_HEDGED.equalsIgnoreCase(parsingMode)
+                ? hedgedParse(query)
+                : geminiService.processVoiceCommandAsync(query);
+        return parsed
+                .thenComposeAsync(parsedCommands -> {
+                    log.info("Parsed {} command(s): {}", parsedCommands.size(), parsedCommands);
+                    listener.onIntent(parsedCommands);
+
+                    return executeParsedCommands(userId, parsedCommands, listener);
+                }, voiceTaskExecutor)
+                .exceptionallyComposeAsync(e -> {
+                    log.error("Error processing voice command with Gemini: {}", e.getMessage());
+                    return processLocally(userId, List.of(query), listener);
+                }, voiceTaskExecutor);
+    }
 
+    // Gemini always runs to completion, so answers that miss the budget still count towards the agreement rate
+    private CompletableFuture<List<ParsedVoiceCommand>> hedgedParse(String query) {
+        List<ParsedVoiceCommand> localCommands = localIntentParser.parseAll(query);
+        boolean confident = isConfident(localCommands);
+
+        CompletableFuture<List<ParsedVoiceCommand>> geminiCommands = geminiService.processVoiceCommandAsync(query);
+        geminiCommands.thenAccept(commands -> recordAgreement(query, localCommands, commands, confident));
+
+        if (confident) {
+            recordHedgeOutcome("local_confident");
+            return CompletableFuture.completedFuture(localCommands);
+        }
+        return geminiCommands.copy()
+                .completeOnTimeout(localCommands, hedgeBudget.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(commands -> {
+                    if (commands == localCommands) {
+                        log.info("Gemini missed the {} ms hedge budget - using local parse for '{}'",
+                                hedgeBudget.toMillis(), query);
+                        recordHedgeOutcome("budget_exceeded");
+                    } else {
+                        recordHedgeOutcome("gemini");
+                    }
+                    return commands;
+                });
+    }
+
+    private void recordHedgeOutcome(String outcome) {
+        meterRegistry.counter("voice.parse.hedge", "outcome", outcome).increment();
+    }
+
+    private void recordAgreement(String query, List<ParsedVoiceCommand> localCommands,
+            List<ParsedVoiceCommand> geminiCommands, boolean confident) {
+        String result;
+        if (geminiCommands.stream().anyMatch(command -> LocalIntentParser.SOURCE.equals(command.getSource()))) {
+            // Gemini failed and fell back to the local parser, so there's nothing to compare
+            result = "unavailable";
+        } else if (sameCommands(localCommands, geminiCommands)) {
+            result = "agree";
+        } else {
+            result = "disagree";
+            log.info("Hedged parse disagreement for '{}' - local: {}, gemini: {}", query, localCommands, geminiCommands);
+        }
+        meterRegistry.counter("voice.parse.agreement",
+                "result", result,
+                "local_confident", String.valueOf(confident)).increment();
+    }
+
+    private boolean sameCommands(List<ParsedVoiceCommand> first, List<ParsedVoiceCommand> second) {
+        if (first.size() != second.size()) {
+            return false;
+        }
+        for (int i = 0; i < first.size(); i++) {
+            ParsedVoiceCommand a = first.get(i);
+            ParsedVoiceCommand b = second.get(i);
+            if (!a.getIntent().equalsIgnoreCase(b.getIntent())
+                    || !a.getItem().trim().equalsIgnoreCase(b.getItem().trim())
+                    || !a.getQuantity().equals(b.getQuantity())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public VoiceCommandResponse processVoiceCommands(String userId, List<String> queries) {
+        return processVoiceCommandsAsync(userId, queries).join();
+    }
+
+    // Many utterances at once: at most one Gemini call to parse them and one bulk write for the adds
+    public CompletableFuture<VoiceCommandResponse> processVoiceCommandsAsync(String userId, List<String> queries) {
+        log.info("Processing {} voice commands for user {}", queries.size(), userId);
+
+        if (PARSING_MODE_LOCAL_FIRST.equalsIgnoreCase(parsingMode)) {
+            List<ParsedVoiceCommand> localCommands = new ArrayList<>();
+            queries.forEach(query -> localCommands.addAll(localIntentParser.parseAll(query)));
+            if (isConfident(localCommands)) {
+                log.info("Local parse confident for all {} commands - skipping Gemini", queries.size());
+                return executeParsedCommands(userId, localCommands, VoiceStageListener.NONE)
+                        .exceptionally(e -> {
+                            log.error("Error executing locally parsed commands: {}", e.getMessage());
+                            return new VoiceCommandResponse("error", "Sorry, I couldn't process those commands. Please try again.");
+                        });
+            }
+        }
+
+        return geminiService.processVoiceCommandsAsync(queries)
+                .thenComposeAsync(parsedPerQuery -> {
+                    List<ParsedVoiceCommand> commands = new ArrayList<>();
+                    parsedPerQuery.forEach(commands::addAll);
+                    log.info("Gemini parsed {} commands from {} utterances", commands.size(), queries.size());
+
+                    return executeParsedCommands(userId, commands, VoiceStageListener.NONE);
+                }, voiceTaskExecutor)
+                .exceptionallyComposeAsync(e -> {
+                    log.error("Error processing voice commands with Gemini: {}", e.getMessage());
+                    return processLocally(userId, queries, VoiceStageListener.NONE);
+                }, voiceTaskExecutor);
+    }
+
+    private boolean isConfident(List<ParsedVoiceCommand> commands) {
+        return commands.stream().allMatch(command -> command.getConfidence() >= localConfidenceThreshold);
+    }
+
+    // Fallback to local parsing only if Gemini fails. Runs on a voiceTaskExecutor thread, so it chains the
+    // execution instead of joining it: the add path is queued on the same executor, and blocked joins
+    // could take every thread while the work they wait for sits in the queue.
+    private CompletableFuture<VoiceCommandResponse> processLocally(String userId, List<String> queries,
+            VoiceStageListener listener) {
         try {
-            // Use Gemini API for intelligent parsing
-            Map<String, Object> parsedCommand = geminiService.processVoiceCommand(query);
+            List<ParsedVoiceCommand> parsedCommands = new ArrayList<>();
+            queries.forEach(query -> parsedCommands.addAll(localIntentParser.parseAll(query)));
+
+            log.warn("Using local parsing fallback - {} command(s): {}", parsedCommands.size(), parsedCommands);
+            listener.onIntent(parsedCommands);
+            return executeParsedCommands(userId, parsedCommands, listener)
+                    .exceptionally(this::localFallbackFailed);
+        } catch (RuntimeException fallbackError) {
+            return CompletableFuture.completedFuture(localFallbackFailed(fallbackError));
+        }
+    }
 
-            String intent = (String) parsedCommand.get("intent");
-            String itemName = (String) parsedCommand.get("item");
-            Integer quantity = (Integer) parsedCommand.get("quantity");
-            String category = (String) parsedCommand.get("category");
-            String unit = (String) parsedCommand.get("unit");
+    private VoiceCommandResponse localFallbackFailed(Throwable fallbackError) {
+        log.error("Both Gemini and local parsing failed: {}", fallbackError.getMessage());
+        return new VoiceCommandResponse("error", "Sorry, I couldn't understand that command. Please try again.");
+    }
 
-            log.info("Gemini parsed command - Intent: {}, Item: {}, Quantity: {}", intent, itemName, quantity);
+    private CompletableFuture<VoiceCommandResponse> executeParsedCommands(String userId, List<ParsedVoiceCommand> commands,
+            VoiceStageListener listener) {
+        if (commands.size() == 1) {
+            return executeParsedCommand(userId, commands.get(0), listener);
+        }
 
-            return executeIntent(userId, intent, itemName, quantity, category, unit);
+        // Adds that match a catalog product are collected into one bulk write; everything else runs as before
+        List<CompletableFuture<VoiceCommandResponse>> results = new ArrayList<>(commands.size());
+        List<ShoppingItem> bulkItems = new ArrayList<>();
+        List<CompletableFuture<VoiceCommandResponse>> bulkResults = new ArrayList<>();
 
-        } catch (Exception e) {
-            log.error("Error processing voice command with Gemini: {}", e.getMessage());
-            // Fallback to local parsing only if Gemini fails
-            try {
-                Map<String, Object> parsedCommand = parseCommandLocally(query);
-                String intent = (String) parsedCommand.get("intent");
-                String itemName = (String) parsedCommand.get("item");
-                Integer quantity = (Integer) parsedCommand.get("quantity");
-                String category = (String) parsedCommand.get("category");
-                String unit = (String) parsedCommand.get("unit");
-                
-                log.warn("Using local parsing fallback - Intent: {}, Item: {}, Quantity: {}", intent, itemName, quantity);
-                return executeIntent(userId, intent, itemName, quantity, category, unit);
-            } catch (Exception fallbackError) {
-                log.error("Both Gemini and local parsing failed: {}", fallbackError.getMessage());
-                return new VoiceCommandResponse("error", "Sorry, I couldn't understand that command. Please try again.");
+        for (ParsedVoiceCommand command : commands) {
+            Product product = "add".equalsIgnoreCase(command.getIntent()) ? findCatalogProduct(command.getItem(), listener) : null;
+            if (product == null) {
+                results.add(executeParsedCommand(userId, command, listener));
+                continue;
             }
+            String unit = command.getUnit() != null ? command.getUnit() : "item";
+            bulkItems.add(new ShoppingItem(userId, product.getName(), command.getQuantity(), product.getCategory(),
+                    unit, product.getPrice(), product.getBrand()));
+
+            CompletableFuture<VoiceCommandResponse> result = new CompletableFuture<>();
+            bulkResults.add(result);
+            results.add(result);
+        }
+
+        if (!bulkItems.isEmpty()) {
+            completeBulkAdd(userId, bulkItems, bulkResults);
+        }
+
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> combineResponses(results.stream().map(CompletableFuture::join).toList()));
+    }
+
+    private Product findCatalogProduct(String itemName, VoiceStageListener listener) {
+        if (itemName == null || itemName.trim().isEmpty() || "unknown".equalsIgnoreCase(itemName)) {
+            return null;
+        }
+        List<Product> products = productService.getProductSuggestions(itemName);
+        if (!products.isEmpty()) {
+            listener.onCandidates(itemName, products);
+        }
+        return products.isEmpty() ? null : products.get(0);
+    }
+
+    private void completeBulkAdd(String userId, List<ShoppingItem> items, List<CompletableFuture<VoiceCommandResponse>> results) {
+        try {
+            shoppingListService.addItems(userId, items);
+            voiceSessionCache.touch(userId, items.get(items.size() - 1).getName());
+            for (int i = 0; i < items.size(); i++) {
+                ShoppingItem item = items.get(i);
+                int quantity = item.getQuantity();
+                String message = String.format("Added %d %s %s to your list (Price: $%.2f each)",
+                        quantity, item.getUnit(), item.getName(), item.getPrice());
+                results.get(i).complete(new VoiceCommandResponse("added", "add", item.getName(), quantity, message));
+            }
+            log.info("Voice batch added {} items in one write", items.size());
+        } catch (Exception e) {
+            log.error("Error bulk adding items: {}", e.getMessage());
+            results.forEach(result -> result.complete(
+                    new VoiceCommandResponse("error", "Sorry, I couldn't add that item to your list.")));
         }
     }
 
-    private Map<String, Object> parseCommandLocally(String query) {
-        Map<String, Object> result = new HashMap<>();
-        String lowerQuery = query.toLowerCase().trim();
-        
-        // Default values
-        result.put("intent", "add");
-        result.put("quantity", 1);
-        result.put("category", "Other");
-        result.put("unit", "item");
-        
-        // Extract quantity
-        Pattern quantityPattern = Pattern.compile("(\\d+)\\s+");
-        Matcher quantityMatcher = quantityPattern.matcher(lowerQuery);
-        if (quantityMatcher.find()) {
-            result.put("quantity", Integer.parseInt(quantityMatcher.group(1)));
+    private VoiceCommandResponse combineResponses(List<VoiceCommandResponse> responses) {
+        String status = responses.get(0).getStatus();
+        for (VoiceCommandResponse response : responses) {
+            if (!status.equals(response.getStatus())) {
+                status = "batch";
+                break;
+            }
         }
-        
-        // Extract item name - everything after "add" and quantity
-        String itemName = lowerQuery;
-        itemName = itemName.replaceAll("add\\s+", "");
-        itemName = itemName.replaceAll("\\d+\\s+", "");
-        itemName = itemName.replaceAll("to\\s+my\\s+list", "");
-        itemName = itemName.replaceAll("to\\s+my\\s+shopping\\s+list", "");
-        itemName = itemName.replaceAll("bottles?\\s+of\\s+", "");
-        itemName = itemName.replaceAll("pieces?\\s+of\\s+", "");
-        itemName = itemName.trim();
-        
-        result.put("item", itemName);
-        
-        log.info("Local parsing result: {}", result);
-        return result;
+
+        String message = responses.stream()
+                .map(VoiceCommandResponse::getMessage)
+                .collect(java.util.stream.Collectors.joining(" "));
+        VoiceCommandResponse combined = new VoiceCommandResponse(status, message);
+        combined.setAction("batch");
+        combined.setData(responses);
+        return combined;
+    }
+
+    private CompletableFuture<VoiceCommandResponse> executeParsedCommand(String userId, ParsedVoiceCommand command,
+            VoiceStageListener listener) {
+        return executeIntent(userId, command.getIntent(), command.getItem(), command.getQuantity(),
+                command.getCategory(), command.getUnit(), listener);
     }
 
-    private VoiceCommandResponse executeIntent(String userId, String intent, String itemName,
-            Integer quantity, String category, String unit) {
+    private CompletableFuture<VoiceCommandResponse> executeIntent(String userId, String intent, String itemName,
+            Integer quantity, String category, String unit, VoiceStageListener listener) {
         switch (intent.toLowerCase()) {
             case "add":
-                return handleAddIntent(userId, itemName, quantity, category, unit);
+                return handleAddIntent(userId, itemName, quantity, category, unit, listener);
 
             case "remove":
-                return handleRemoveIntent(userId, itemName);
+                return CompletableFuture.completedFuture(handleRemoveIntent(userId, itemName));
 
             case "update":
-                return handleUpdateIntent(userId, itemName, quantity);
+                return CompletableFuture.completedFuture(handleUpdateIntent(userId, itemName, quantity));
 
             case "search":
-                return handleSearchIntent(itemName);
+                return CompletableFuture.completedFuture(handleSearchIntent(itemName));
 
             case "list":
-                return handleListIntent(userId);
+                return CompletableFuture.completedFuture(handleListIntent(userId));
 
             default:
-                return new VoiceCommandResponse("error",
-                        "I'm not sure what you want me to do. Try saying 'add', 'remove', 'search', or 'list'.");
+                return CompletableFuture.completedFuture(new VoiceCommandResponse("error",
+                        "I'm not sure what you want me to do. Try saying 'add', 'remove', 'search', or 'list'."));
         }
     }
 
-    private VoiceCommandResponse handleAddIntent(String userId, String itemName, Integer quantity,
-            String category, String unit) {
+    private CompletableFuture<VoiceCommandResponse> handleAddIntent(String userId, String itemName, Integer quantity,
+            String category, String unit, VoiceStageListener listener) {
         try {
             // Validate item name first
             if (itemName == null || itemName.trim().isEmpty() || "unknown".equalsIgnoreCase(itemName)) {
-                return new VoiceCommandResponse("error", "I couldn't identify a valid item to add. Please try again with a specific food or grocery item.");
+                return CompletableFuture.completedFuture(new VoiceCommandResponse("error", "I couldn't identify a valid item to add. Please try again with a specific food or grocery item."));
             }
             
             // First, try to find a matching product to get price information
             List<Product> products = productService.getProductSuggestions(itemName);
             
-            ShoppingItem item;
-            String message;
-            
             if (!products.isEmpty()) {
+                meterRegistry.counter("voice.add.resolution", "source", "catalog").increment();
+                listener.onCandidates(itemName, products);
                 // Found matching product - use it to preserve price info
                 Product matchingProduct = products.get(0); // Use best match
-                item = shoppingListService.addItem(userId, matchingProduct.getName(), quantity, 
+                ShoppingItem item = shoppingListService.addItem(userId, matchingProduct.getName(), quantity, 
                     matchingProduct.getCategory(), unit != null ? unit : "item", 
                     null, "medium", matchingProduct.getPrice(), matchingProduct.getBrand());
+                voiceSessionCache.touch(userId, item.getName());
                 
-                message = String.format("Added %d %s %s to your list (Price: $%.2f each)",
+                String message = String.format("Added %d %s %s to your list (Price: $%.2f each)",
                         quantity, unit != null ? unit : "item" + (quantity > 1 ? "s" : ""), 
                         matchingProduct.getName(), matchingProduct.getPrice());
                         
                 log.info("Voice command added item with price: {} - ${}", matchingProduct.getName(), matchingProduct.getPrice());
-            } else {
-                // No matching product found - get AI suggestions from actual database products
-                List<Product> allProducts = productService.getAllProducts();
-                String availableProducts = allProducts.stream()
-                    .map(Product::getName)
-                    .collect(java.util.stream.Collectors.joining(", "));
+                return CompletableFuture.completedFuture(new VoiceCommandResponse("added", "add", item.getName(), quantity, message));
+            }
+
+            // No matching product found, not even a near-miss - get AI suggestions from actual database products
+            meterRegistry.counter("voice.add.resolution", "source", "gemini").increment();
+            // Only a bounded shortlist of the catalog goes into the prompt
+            String availableProducts = candidateSelector.shortlistForItem(itemName, productService.getCatalogDigest());
+            
+            return geminiService.generateProductSuggestionsAsync(itemName, availableProducts)
+                    .thenApplyAsync(aiSuggestions -> addSuggestedProduct(userId, itemName, quantity, unit, aiSuggestions, listener),
+                            voiceTaskExecutor);
+
+        } catch (Exception e) {
+            log.error("Error adding item: {}", e.getMessage());
+            return CompletableFuture.completedFuture(new VoiceCommandResponse("error", "Sorry, I couldn't add that item to your list."));
+        }
+    }
+
+    private VoiceCommandResponse addSuggestedProduct(String userId, String itemName, Integer quantity, String unit,
+            String aiSuggestions, VoiceStageListener listener) {
+        try {
+            if (aiSuggestions != null && !aiSuggestions.trim().isEmpty() && !"none".equalsIgnoreCase(aiSuggestions)) {
+                // Parse AI suggestions and get actual Product objects
+                List<String> suggestedNames = java.util.Arrays.stream(aiSuggestions.split(","))
+                    .map(String::trim)
+                    .collect(java.util.stream.Collectors.toList());
                 
-                String aiSuggestions = geminiService.generateProductSuggestions(itemName, availableProducts);
+                log.info("AI suggested product names: {}", suggestedNames);
                 
-                if (aiSuggestions != null && !aiSuggestions.trim().isEmpty() && !"none".equalsIgnoreCase(aiSuggestions)) {
-                    // Parse AI suggestions and get actual Product objects
-                    List<String> suggestedNames = java.util.Arrays.stream(aiSuggestions.split(","))
-                        .map(String::trim)
-                        .collect(java.util.stream.Collectors.toList());
-                    
-                    log.info("AI suggested product names: {}", suggestedNames);
-                    
-                    List<Product> suggestedProducts = productService.getProductsByNames(suggestedNames);
-                    log.info("Found matching products: {}", suggestedProducts.stream().map(Product::getName).collect(java.util.stream.Collectors.toList()));
+                List<Product> suggestedProducts = productService.getProductsByNames(suggestedNames);
+                log.info("Found matching products: {}", suggestedProducts.stream().map(Product::getName).collect(java.util.stream.Collectors.toList()));
+                listener.onCandidates(itemName, suggestedProducts);
+                
+                if (!suggestedProducts.isEmpty()) {
+                    // Use the first suggested product and add it directly with price
+                    Product suggestedProduct = suggestedProducts.get(0);
+                    ShoppingItem item = shoppingListService.addItem(userId, suggestedProduct.getName(), quantity, 
+                        suggestedProduct.getCategory(), unit != null ? unit : "item", 
+                        null, "medium", suggestedProduct.getPrice(), suggestedProduct.getBrand());
+                    voiceSessionCache.touch(userId, item.getName());
                     
-                    if (!suggestedProducts.isEmpty()) {
-                        // Use the first suggested product and add it directly with price
-                        Product suggestedProduct = suggestedProducts.get(0);
-                        item = shoppingListService.addItem(userId, suggestedProduct.getName(), quantity, 
-                            suggestedProduct.getCategory(), unit != null ? unit : "item", 
-                            null, "medium", suggestedProduct.getPrice(), suggestedProduct.getBrand());
-                        
-                        message = String.format("I found '%s' for you and added %d %s to your list (Price: $%.2f each). Other suggestions: %s",
-                                suggestedProduct.getName(), quantity, 
-                                unit != null ? unit : "item" + (quantity > 1 ? "s" : ""), 
-                                suggestedProduct.getPrice(),
-                                suggestedProducts.stream().skip(1).map(Product::getName).collect(java.util.stream.Collectors.joining(", ")));
-                                
-                        log.info("Voice command added suggested product with price: {} - ${}", suggestedProduct.getName(), suggestedProduct.getPrice());
-                    } else {
-                        log.warn("AI suggestions '{}' did not match any database products", aiSuggestions);
-                        return new VoiceCommandResponse("suggestion", 
-                            String.format("I couldn't find '%s' in our products. AI suggested: %s, but these don't match our inventory. Please try a different item.", 
-                            itemName, aiSuggestions));
-                    }
+                    String message = String.format("I found '%s' for you and added %d %s to your list (Price: $%.2f each). Other suggestions: %s",
+                            suggestedProduct.getName(), quantity, 
+                            unit != null ? unit : "item" + (quantity > 1 ? "s" : ""), 
+                            suggestedProduct.getPrice(),
+                            suggestedProducts.stream().skip(1).map(Product::getName).collect(java.util.stream.Collectors.joining(", ")));
+                            
+                    log.info("Voice command added suggested product with price: {} - ${}", suggestedProduct.getName(), suggestedProduct.getPrice());
+                    return new VoiceCommandResponse("added", "add", item.getName(), quantity, message);
                 } else {
-                    // Don't add items that don't exist in database
-                    log.warn("Item '{}' not found in database and AI couldn't suggest alternatives", itemName);
-                    return new VoiceCommandResponse("error", 
-                        String.format("I couldn't find '%s' in our product database. Please try a different item or add it to the product catalog first.", itemName));
+                    log.warn("AI suggestions '{}' did not match any database products", aiSuggestions);
+                    return new VoiceCommandResponse("suggestion", 
+                        String.format("I couldn't find '%s' in our products. AI suggested: %s, but these don't match our inventory. Please try a different item.", 
+                        itemName, aiSuggestions));
                 }
+            } else {
+                // Don't add items that don't exist in database
+                log.warn("Item '{}' not found in database and AI couldn't suggest alternatives", itemName);
+                return new VoiceCommandResponse("error", 
+                    String.format("I couldn't find '%s' in our product database. Please try a different item or add it to the product catalog first.", itemName));
             }
 
-            return new VoiceCommandResponse("added", "add", item.getName(), quantity, message);
-
         } catch (Exception e) {
             log.error("Error adding item: {}", e.getMessage());
             return new VoiceCommandResponse("error", "Sorry, I couldn't add that item to your list.");
@@ -201,18 +423,27 @@ public class VoiceProcessingService {
 
     private VoiceCommandResponse handleRemoveIntent(String userId, String itemName) {
         try {
-            Optional<ShoppingItem> itemOpt = shoppingListService.findItemByName(userId, itemName);
+            // Resolved from the in-memory session, including "remove it" for the last touched item
+            Optional<ShoppingItem> itemOpt = voiceSessionCache.findItemToChange(userId, itemName);
 
             if (itemOpt.isPresent()) {
                 ShoppingItem item = itemOpt.get();
                 boolean removed = shoppingListService.removeItem(userId, item.getId());
 
                 if (removed) {
-                    String message = String.format("Removed %s from your list", itemName);
-                    return new VoiceCommandResponse("removed", "remove", itemName, null, message);
+                    voiceSessionCache.forget(userId, item.getName());
+                    String message = String.format("Removed %s from your list", item.getName());
+                    return new VoiceCommandResponse("removed", "remove", item.getName(), null, message);
                 }
             }
 
+            if (VoiceSessionCache.isReference(itemName)) {
+                return new VoiceCommandResponse("not_found", "I'm not sure which item you mean. Please say its name.");
+            }
+            VoiceCommandResponse clarification = clarify(userId, itemName, "remove");
+            if (clarification != null) {
+                return clarification;
+            }
             String message = String.format("I couldn't find %s in your shopping list", itemName);
             return new VoiceCommandResponse("not_found", message);
 
@@ -224,16 +455,24 @@ public class VoiceProcessingService {
 
     private VoiceCommandResponse handleUpdateIntent(String userId, String itemName, Integer quantity) {
         try {
-            Optional<ShoppingItem> itemOpt = shoppingListService.findItemByName(userId, itemName);
+            Optional<ShoppingItem> itemOpt = voiceSessionCache.findItemToChange(userId, itemName);
 
             if (itemOpt.isPresent()) {
                 ShoppingItem item = itemOpt.get();
                 shoppingListService.updateItemQuantity(userId, item.getId(), quantity);
+                voiceSessionCache.touch(userId, item.getName());
 
-                String message = String.format("Updated %s quantity to %d", itemName, quantity);
-                return new VoiceCommandResponse("updated", "update", itemName, quantity, message);
+                String message = String.format("Updated %s quantity to %d", item.getName(), quantity);
+                return new VoiceCommandResponse("updated", "update", item.getName(), quantity, message);
             }
 
+            if (VoiceSessionCache.isReference(itemName)) {
+                return new VoiceCommandResponse("not_found", "I'm not sure which item you mean. Please say its name.");
+            }
+            VoiceCommandResponse clarification = clarify(userId, itemName, "update");
+            if (clarification != null) {
+                return clarification;
+            }
             String message = String.format("I couldn't find %s in your shopping list to update", itemName);
             return new VoiceCommandResponse("not_found", message);
 
@@ -243,6 +482,21 @@ public class VoiceProcessingService {
         }
     }
 
+    // Close but not certain matches for a remove/update: ask rather than change the wrong item
+    private VoiceCommandResponse clarify(String userId, String itemName, String action) {
+        List<String> names = voiceSessionCache.similarItems(userId, itemName, 3).stream()
+                .map(ShoppingItem::getName)
+                .toList();
+        if (names.isEmpty()) {
+            return null;
+        }
+        String message = String.format("Did you mean %s? Please say the full name to %s it.",
+                String.join(" or ", names), action);
+        VoiceCommandResponse response = new VoiceCommandResponse("clarification", action, itemName, null, message);
+        response.setData(names);
+        return response;
+    }
+
     private VoiceCommandResponse handleSearchIntent(String query) {
         try {
             List<Product> products = productService.searchProducts(query, null, null);
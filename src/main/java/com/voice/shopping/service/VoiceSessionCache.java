@@ -0,0 +1,188 @@
+package com.voice.shopping.service;
+
+import com.voice.shopping.model.ShoppingItem;
+import com.voice.shopping.repository.ShoppingItemRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-user voice session: a snapshot of the shopping list plus the item the user last touched, so
+// remove/update commands and follow-ups ("make that three") resolve in memory instead of running a
+// regex query against Mongo. ShoppingListService invalidates the snapshot on every write; writes made
+// through other instances can't reach it, so a snapshot is also only trusted for snapshot-ttl.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VoiceSessionCache implements MeterBinder {
+
+    private static final Set<String> REFERENCES = Set.of("", "unknown", "it", "that", "this", "them", "those", "these");
+
+    private final ShoppingItemRepository shoppingItemRepository;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong snapshotHits = new AtomicLong();
+    private final AtomicLong snapshotLoads = new AtomicLong();
+    private final AtomicLong followUps = new AtomicLong();
+
+    @Value("${app.voice.session.ttl:30m}")
+    private Duration ttl;
+
+    @Value("${app.voice.session.max-sessions:10000}")
+    private Integer maxSessions;
+
+    @Value("${app.voice.session.snapshot-ttl:5s}")
+    private Duration snapshotTtl;
+
+    public List<ShoppingItem> getSnapshot(String userId) {
+        Session session = session(userId);
+        List<ShoppingItem> snapshot = session.snapshot;
+        if (snapshot != null && System.nanoTime() - session.snapshotLoadedAt < snapshotTtl.toNanos()) {
+            snapshotHits.incrementAndGet();
+            return snapshot;
+        }
+
+        // A write between the load and the store bumps the version, and the stale load is then discarded
+        long version = session.version.get();
+        long loadStarted = System.nanoTime();
+        List<ShoppingItem> loaded = List.copyOf(shoppingItemRepository.findByUserId(userId));
+        snapshotLoads.incrementAndGet();
+        synchronized (session) {
+            if (session.version.get() == version) {
+                session.snapshotLoadedAt = loadStarted;
+                session.snapshot = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    // Resolves a spoken item against the user's list: pronouns and empty items mean the last-touched item
+    public Optional<ShoppingItem> findItem(String userId, String itemName) {
+        List<ShoppingItem> snapshot = getSnapshot(userId);
+        if (isReference(itemName)) {
+            return lastTouched(userId, itemName, snapshot);
+        }
+        return ItemNameMatcher.bestMatch(itemName, snapshot, ShoppingItem::getName);
+    }
+
+    // Like findItem, but for remove and update: a fuzzy name must be exact or unambiguous, otherwise
+    // nothing is returned and the caller asks which item was meant
+    public Optional<ShoppingItem> findItemToChange(String userId, String itemName) {
+        List<ShoppingItem> snapshot = getSnapshot(userId);
+        if (isReference(itemName)) {
+            return lastTouched(userId, itemName, snapshot);
+        }
+        return ItemNameMatcher.confidentMatch(itemName, snapshot, ShoppingItem::getName);
+    }
+
+    public List<ShoppingItem> similarItems(String userId, String itemName, int limit) {
+        return ItemNameMatcher.closeMatches(itemName, getSnapshot(userId), ShoppingItem::getName, limit);
+    }
+
+    private Optional<ShoppingItem> lastTouched(String userId, String itemName, List<ShoppingItem> snapshot) {
+        String lastItem = session(userId).lastItemName;
+        if (lastItem == null) {
+            return Optional.empty();
+        }
+        followUps.incrementAndGet();
+        log.debug("Resolved '{}' to last touched item '{}' for user {}", itemName, lastItem, userId);
+        return snapshot.stream().filter(item -> item.getName().equalsIgnoreCase(lastItem)).findFirst();
+    }
+
+    public void touch(String userId, String itemName) {
+        session(userId).lastItemName = itemName;
+    }
+
+    // The client's context names the item it considers current (e.g. the one on screen); it only
+    // counts when it matches something on the list
+    public void rememberContext(String userId, String context) {
+        if (context == null || context.isBlank()) {
+            return;
+        }
+        ItemNameMatcher.bestMatch(context, getSnapshot(userId), ShoppingItem::getName)
+                .ifPresent(item -> touch(userId, item.getName()));
+    }
+
+    public void forget(String userId, String itemName) {
+        Session session = sessions.get(userId);
+        if (session != null && itemName != null && itemName.equalsIgnoreCase(session.lastItemName)) {
+            session.lastItemName = null;
+        }
+    }
+
+    public void invalidate(String userId) {
+        Session session = sessions.get(userId);
+        if (session != null) {
+            synchronized (session) {
+                session.version.incrementAndGet();
+                session.snapshot = null;
+            }
+        }
+    }
+
+    public static boolean isReference(String itemName) {
+        return itemName == null || REFERENCES.contains(itemName.trim().toLowerCase());
+    }
+
+    private Session session(String userId) {
+        Session session = sessions.computeIfAbsent(userId, key -> new Session());
+        session.lastAccess = System.nanoTime();
+        if (sessions.size() > maxSessions) {
+            evictIdleSessions();
+        }
+        return session;
+    }
+
+    private void evictIdleSessions() {
+        long now = System.nanoTime();
+        sessions.values().removeIf(session -> now - session.lastAccess > ttl.toNanos());
+        // Still over the limit with nothing idle: drop the least recently used sessions
+        if (sessions.size() > maxSessions) {
+            sessions.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                    .limit(sessions.size() - maxSessions)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(sessions::remove);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("voice.session.snapshot", snapshotHits, AtomicLong::get)
+                .tag("result", "hit")
+                .description("Shopping list snapshot lookups for voice commands")
+                .register(registry);
+        FunctionCounter.builder("voice.session.snapshot", snapshotLoads, AtomicLong::get)
+                .tag("result", "load")
+                .description("Shopping list snapshot lookups for voice commands")
+                .register(registry);
+        FunctionCounter.builder("voice.session.follow.ups", followUps, AtomicLong::get)
+                .description("Voice commands resolved to the last touched item")
+                .register(registry);
+        Gauge.builder("voice.session.active", sessions, Map::size)
+                .description("Voice sessions held in memory")
+                .register(registry);
+    }
+
+    private static final class Session {
+        private final AtomicLong version = new AtomicLong();
+        private volatile List<ShoppingItem> snapshot;
+        private volatile long snapshotLoadedAt;
+        private volatile String lastItemName;
+        private volatile long lastAccess;
+    }
+}
@@ -0,0 +1,20 @@
+package com.voice.shopping.service;
+
+import com.voice.shopping.dto.ParsedVoiceCommand;
+import com.voice.shopping.model.Product;
+
+import java.util.List;
+
+// Callbacks for intermediate voice pipeline results, so streaming clients can react
+// before the final VoiceCommandResponse is ready. Called from whichever thread finished the stage.
+public interface VoiceStageListener {
+
+    VoiceStageListener NONE = new VoiceStageListener() {
+    };
+
+    default void onIntent(List<ParsedVoiceCommand> commands) {
+    }
+
+    default void onCandidates(String itemName, List<Product> candidates) {
+    }
+}
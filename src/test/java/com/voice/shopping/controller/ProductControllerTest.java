@@ -0,0 +1,50 @@
+package com.voice.shopping.controller;
+
+import com.voice.shopping.dto.ProductPage;
+import com.voice.shopping.model.Product;
+import com.voice.shopping.repository.ProductSort;
+import com.voice.shopping.service.ProductImportService;
+import com.voice.shopping.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ProductControllerTest {
+
+    private final ProductService productService = mock(ProductService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new ProductController(productService, mock(ProductImportService.class)))
+                .build();
+    }
+
+    @Test
+    void exposesTheNextCursorHeaderToCrossOriginCallers() throws Exception {
+        when(productService.searchProductsPage(eq("milk"), isNull(), isNull(), eq(ProductSort.RELEVANCE), isNull(), any()))
+                .thenReturn(new ProductPage(List.of(new Product("Whole Milk", "Fresh Farm", 4.99, "Dairy", "")), "abc"));
+
+        mockMvc.perform(get("/api/search").param("query", "milk")
+                        .header(HttpHeaders.ORIGIN, "https://project-repo-0.onrender.com"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ProductController.NEXT_CURSOR_HEADER, "abc"))
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS,
+                        containsString(ProductController.NEXT_CURSOR_HEADER)));
+    }
+}
@@ -0,0 +1,137 @@
+package com.voice.shopping.repository;
+
+import com.voice.shopping.model.Product;
+import com.voice.shopping.service.ProductService;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Every filter shape ProductCriteriaBuilder emits has to be answered from an index, never a collection scan
+@DataMongoTest(properties = "de.flapdoodle.mongodb.embedded.version=7.0.4")
+class ProductIndexExplainTest {
+
+    private static final String[] CATEGORIES = { "Dairy", "Bakery", "Fruits", "Vegetables", "Snacks" };
+    private static final String[] BRANDS = { "Fresh Farm", "Chobani", "Organic Valley", "Nature's Own", "Lay's" };
+
+    // VoiceShoppingApplication's startup runner needs it
+    @MockBean
+    private ProductService productService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoMappingContext mappingContext;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(Product.class);
+        IndexOperations indexOps = mongoTemplate.indexOps(Product.class);
+        new MongoPersistentEntityIndexResolver(mappingContext).resolveIndexFor(Product.class)
+                .forEach(indexOps::ensureIndex);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Product product = new Product("Product " + i, BRANDS[i % BRANDS.length], 0.5 + (i % 40),
+                    CATEGORIES[i % CATEGORIES.length], "Test product " + i);
+            product.setInStock(i % 7 != 0);
+            products.add(product);
+        }
+        mongoTemplate.insertAll(products);
+    }
+
+    @Test
+    void categoryBrandAndPriceUseTheCompoundIndex() {
+        Criteria filter = ProductCriteriaBuilder.products().category("Dairy").brand("Chobani").maxPrice(10.0).build();
+
+        assertIndexScan(filter, new Document("price", 1).append("_id", 1));
+    }
+
+    @Test
+    void severalCategoriesUseTheCompoundIndex() {
+        Criteria filter = ProductCriteriaBuilder.products().categories(List.of("Dairy", "Bakery")).build();
+
+        assertIndexScan(filter, new Document("name", 1).append("_id", 1));
+    }
+
+    @Test
+    void brandOnlyUsesAnIndex() {
+        Criteria filter = ProductCriteriaBuilder.products().brand("Chobani").build();
+
+        assertIndexScan(filter, new Document("name", 1).append("_id", 1));
+    }
+
+    @Test
+    void brandAndMaxPriceUseAnIndex() {
+        Criteria filter = ProductCriteriaBuilder.products().brand("Chobani").maxPrice(5.0).build();
+
+        assertIndexScan(filter, new Document("price", 1).append("_id", 1));
+    }
+
+    @Test
+    void maxPriceOnlyUsesAnIndex() {
+        Criteria filter = ProductCriteriaBuilder.products().maxPrice(5.0).build();
+
+        assertIndexScan(filter, new Document("price", 1).append("_id", 1));
+    }
+
+    @Test
+    void emptyQueryListingUsesAnIndex() {
+        // What /api/search without a query asks for: in-stock products, sorted by name
+        Criteria filter = ProductCriteriaBuilder.products().inStock(true).build();
+
+        assertIndexScan(filter, new Document("name", 1).append("_id", 1));
+    }
+
+    @Test
+    void emptyQueryWithMaxPriceUsesAnIndex() {
+        Criteria filter = ProductCriteriaBuilder.products().maxPrice(5.0).inStock(true).build();
+
+        assertIndexScan(filter, new Document("name", 1).append("_id", 1));
+    }
+
+    // The paged search pipeline is $match, $sort, $limit, which Mongo pushes down into this find
+    private void assertIndexScan(Criteria filter, Document sort) {
+        Document explain = mongoTemplate.getDb().runCommand(new Document("explain",
+                new Document("find", mongoTemplate.getCollectionName(Product.class))
+                        .append("filter", filter.getCriteriaObject())
+                        .append("sort", sort)
+                        .append("limit", 21))
+                .append("verbosity", "queryPlanner"));
+
+        Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+        List<String> stages = new ArrayList<>();
+        collectStages(winningPlan, stages);
+        assertThat(stages).as("winning plan for %s", filter.getCriteriaObject().toJson())
+                .contains("IXSCAN")
+                .doesNotContain("COLLSCAN");
+    }
+
+    // Walks the plan tree; newer servers nest the classic plan under queryPlan
+    private static void collectStages(Document plan, List<String> stages) {
+        if (plan == null) {
+            return;
+        }
+        if (plan.getString("stage") != null) {
+            stages.add(plan.getString("stage"));
+        }
+        collectStages(plan.get("queryPlan", Document.class), stages);
+        collectStages(plan.get("inputStage", Document.class), stages);
+        for (Document input : plan.getList("inputStages", Document.class, List.of())) {
+            collectStages(input, stages);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.voice.shopping.service;
+
+import com.voice.shopping.model.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import static com.voice.shopping.service.CatalogChangeWatcherTest.awaitIndexed;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A standalone mongod has no change streams: auto mode has to fall back to polling the catalog version
+@DataMongoTest(properties = {
+        "de.flapdoodle.mongodb.embedded.version=7.0.4",
+        "app.catalog.sync.mode=auto",
+        "app.catalog.sync.poll-interval=100ms"
+})
+@Import({ CatalogChangeWatcher.class, ProductService.class, ProductCatalogIndex.class, CategoryClassifier.class,
+        SearchFacetCache.class, CatalogVersion.class, CatalogChangeWatcherTest.Metrics.class })
+class CatalogChangeWatcherPollingTest {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProductCatalogIndex catalogIndex;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void insertsReachTheIndex() {
+        Product product = mongoTemplate.insert(new Product("Oat Milk", "Oatly", 3.49, "Dairy", "Oat drink"));
+        catalogVersion.bump();
+
+        awaitIndexed(() -> catalogIndex.findById(product.getId()).isPresent());
+    }
+
+    @Test
+    void deletesReachTheIndex() {
+        Product product = mongoTemplate.insert(new Product("Blue Cheese", "Roquefort", 7.99, "Dairy", "Aged"));
+        catalogVersion.bump();
+        awaitIndexed(() -> catalogIndex.findById(product.getId()).isPresent());
+
+        mongoTemplate.remove(product);
+        catalogVersion.bump();
+
+        awaitIndexed(() -> catalogIndex.findById(product.getId()).isEmpty());
+    }
+
+    @Test
+    void unnamedDocumentsDoNotForceFullReloads() throws InterruptedException {
+        // The index skips products without a name; they mustn't look like a deletion on every poll
+        mongoTemplate.insert(new Document("brand", "No Name"), mongoTemplate.getCollectionName(Product.class));
+        catalogVersion.bump();
+        Product first = mongoTemplate.insert(new Product("Rye Bread", "Baker's", 2.99, "Bakery", "Dark rye"));
+        catalogVersion.bump();
+        awaitIndexed(() -> catalogIndex.findById(first.getId()).isPresent());
+        // Let the poll that applied it finish its count check before measuring
+        Thread.sleep(500);
+
+        double reloads = reloads();
+        Product second = mongoTemplate.insert(new Product("Sourdough", "Baker's", 4.49, "Bakery", "Tangy"));
+        catalogVersion.bump();
+
+        awaitIndexed(() -> catalogIndex.findById(second.getId()).isPresent());
+        assertThat(reloads()).isEqualTo(reloads);
+    }
+
+    private double reloads() {
+        return meterRegistry.counter("catalog.sync.reloads").count();
+    }
+}
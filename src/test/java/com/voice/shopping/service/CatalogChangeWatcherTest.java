@@ -0,0 +1,89 @@
+package com.voice.shopping.service;
+
+import com.voice.shopping.model.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Writes go straight to Mongo, as another instance's would, and must reach this instance's catalog
+// index through the change stream of a single-node replica set
+@DataMongoTest(properties = {
+        "de.flapdoodle.mongodb.embedded.version=7.0.4",
+        "de.flapdoodle.mongodb.embedded.storage.repl-set-name=rs0",
+        "app.catalog.sync.mode=change-stream"
+})
+@Import({ CatalogChangeWatcher.class, ProductService.class, ProductCatalogIndex.class, CategoryClassifier.class,
+        SearchFacetCache.class, CatalogVersion.class, CatalogChangeWatcherTest.Metrics.class })
+class CatalogChangeWatcherTest {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProductCatalogIndex catalogIndex;
+
+    @Test
+    void insertsReachTheIndex() {
+        Product product = mongoTemplate.insert(new Product("Oat Milk", "Oatly", 3.49, "Dairy", "Oat drink"));
+
+        awaitIndexed(() -> catalogIndex.findById(product.getId()).isPresent());
+    }
+
+    @Test
+    void updatesReachTheIndex() {
+        Product product = mongoTemplate.insert(new Product("Rye Bread", "Baker's", 2.99, "Bakery", "Dark rye"));
+        awaitIndexed(() -> catalogIndex.findById(product.getId()).isPresent());
+
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(product.getId())),
+                new Update().set("price", 3.99), Product.class);
+
+        awaitIndexed(() -> catalogIndex.findById(product.getId())
+                .map(indexed -> indexed.getPrice() == 3.99)
+                .orElse(false));
+    }
+
+    @Test
+    void deletesReachTheIndex() {
+        Product product = mongoTemplate.insert(new Product("Blue Cheese", "Roquefort", 7.99, "Dairy", "Aged"));
+        awaitIndexed(() -> catalogIndex.findById(product.getId()).isPresent());
+
+        mongoTemplate.remove(product);
+
+        awaitIndexed(() -> catalogIndex.findById(product.getId()).isEmpty());
+    }
+
+    static void awaitIndexed(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(15).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("catalog index caught up in time").isLessThan(deadline);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
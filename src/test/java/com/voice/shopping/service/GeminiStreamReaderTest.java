@@ -0,0 +1,48 @@
+package com.voice.shopping.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voice.shopping.dto.ParsedVoiceCommand;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeminiStreamReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void completesWhenTheCommandListCloses() throws IOException {
+        GeminiStreamReader reader = reader();
+
+        reader.acceptLine(event("```json\\n[{\\\"intent\\\": \\\"add\\\", \\\"item\\\": \\\"jalapeño"));
+        assertThat(reader.isComplete()).isFalse();
+        reader.acceptLine("");
+        reader.acceptLine(event("s\\\", \\\"quantity\\\": 2}]\\n```"));
+
+        assertThat(reader.isComplete()).isTrue();
+        assertThat(reader.getCommands()).singleElement().satisfies(command -> {
+            assertThat(command.getItem()).isEqualTo("jalapeños");
+            assertThat(command.getQuantity()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    void staysIncompleteWhenTheStreamStopsInsideTheList() throws IOException {
+        GeminiStreamReader reader = reader();
+
+        reader.acceptLine(event("[{\\\"intent\\\": \\\"add\\\", \\\"item\\\": \\\"milk\\\"}, {\\\"intent\\\": \\\"add\\\""));
+
+        assertThat(reader.isComplete()).isFalse();
+        assertThat(reader.getCommands()).extracting(ParsedVoiceCommand::getItem).containsExactly("milk");
+    }
+
+    private GeminiStreamReader reader() throws IOException {
+        return new GeminiStreamReader(objectMapper.getFactory(), "gemini", 0.9);
+    }
+
+    private static String event(String text) {
+        return "data: {\"candidates\": [{\"content\": {\"parts\": [{\"text\": \"" + text + "\"}]}}]}";
+    }
+}
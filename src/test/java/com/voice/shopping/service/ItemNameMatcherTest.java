@@ -0,0 +1,47 @@
+package com.voice.shopping.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemNameMatcherTest {
+
+    @Test
+    void bestMatchToleratesExtraWordsAndTypos() {
+        assertThat(ItemNameMatcher.bestMatch("the milk", List.of("Whole Milk", "Bread"), Function.identity()))
+                .contains("Whole Milk");
+        assertThat(ItemNameMatcher.bestMatch("tomatoe", List.of("Tomatoes", "Potatoes"), Function.identity()))
+                .contains("Tomatoes");
+    }
+
+    @Test
+    void confidentMatchDoesNotPickALongerName() {
+        List<String> list = List.of("Milk Chocolate", "Bread");
+
+        assertThat(ItemNameMatcher.confidentMatch("milk", list, Function.identity())).isEmpty();
+        assertThat(ItemNameMatcher.closeMatches("milk", list, Function.identity(), 3)).containsExactly("Milk Chocolate");
+    }
+
+    @Test
+    void confidentMatchPrefersTheExactName() {
+        assertThat(ItemNameMatcher.confidentMatch("milk", List.of("Milk Chocolate", "Milk"), Function.identity()))
+                .contains("Milk");
+    }
+
+    @Test
+    void confidentMatchAcceptsASingleTypo() {
+        assertThat(ItemNameMatcher.confidentMatch("tomatoe", List.of("Tomatoes", "Bread"), Function.identity()))
+                .contains("Tomatoes");
+    }
+
+    @Test
+    void confidentMatchRejectsAmbiguousNearMatches() {
+        assertThat(ItemNameMatcher.confidentMatch("bannana", List.of("Banana", "Bandana"), Function.identity()))
+                .isEmpty();
+        assertThat(ItemNameMatcher.confidentMatch("bannana", List.of("Banana", "Bread"), Function.identity()))
+                .contains("Banana");
+    }
+}
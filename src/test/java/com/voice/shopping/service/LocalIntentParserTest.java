@@ -0,0 +1,64 @@
+package com.voice.shopping.service;
+
+import com.voice.shopping.dto.ParsedVoiceCommand;
+import com.voice.shopping.model.ShoppingCategory;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalIntentParserTest {
+
+    private final LocalIntentParser parser = new LocalIntentParser();
+
+    @Test
+    void parsesQuantityAndUnit() {
+        ParsedVoiceCommand command = parser.parse("add 2 bottles of milk");
+
+        assertThat(command.getIntent()).isEqualTo("add");
+        assertThat(command.getItem()).isEqualTo("milk");
+        assertThat(command.getQuantity()).isEqualTo(2);
+        assertThat(command.getUnit()).isEqualTo("bottles");
+    }
+
+    @Test
+    void keepsOverlongDigitRunsInTheItemInsteadOfFailing() {
+        ParsedVoiceCommand command = parser.parse("add 99999999999 eggs");
+
+        assertThat(command.getIntent()).isEqualTo("add");
+        assertThat(command.getQuantity()).isEqualTo(1);
+        assertThat(command.getItem()).isEqualTo("99999999999 eggs");
+    }
+
+    @Test
+    void keepsKnownCompoundNamesTogether() {
+        List<ParsedVoiceCommand> commands = parser.parseAll("add salt and pepper");
+
+        assertThat(commands).extracting(ParsedVoiceCommand::getItem).containsExactly("salt and pepper");
+        assertThat(commands.get(0).getConfidence()).isGreaterThanOrEqualTo(0.8);
+    }
+
+    @Test
+    void splitsListsOnAndBelowTheLocalFirstThreshold() {
+        List<ParsedVoiceCommand> commands = parser.parseAll("add milk and eggs");
+
+        assertThat(commands).extracting(ParsedVoiceCommand::getItem).containsExactly("milk", "eggs");
+        assertThat(commands).allSatisfy(command -> assertThat(command.getConfidence()).isLessThan(0.8));
+    }
+
+    @Test
+    void commaSeparatedListsStayConfident() {
+        List<ParsedVoiceCommand> commands = parser.parseAll("add milk, eggs, bread");
+
+        assertThat(commands).extracting(ParsedVoiceCommand::getItem).containsExactly("milk", "eggs", "bread");
+        assertThat(commands).allSatisfy(command -> assertThat(command.getConfidence()).isGreaterThanOrEqualTo(0.8));
+    }
+
+    @Test
+    void categoriesAreShoppingCategoryNames() {
+        assertThat(parser.parse("add rice").getCategory()).isEqualTo(ShoppingCategory.GRAINS.getDisplayName());
+        assertThat(parser.parse("add beans").getCategory()).isEqualTo(ShoppingCategory.CANNED.getDisplayName());
+        assertThat(parser.parse("add olive oil").getCategory()).isEqualTo(ShoppingCategory.OTHER.getDisplayName());
+    }
+}
@@ -0,0 +1,55 @@
+package com.voice.shopping.service;
+
+import com.voice.shopping.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCatalogIndexTest {
+
+    private final ProductCatalogIndex index = new ProductCatalogIndex();
+
+    @Test
+    void batchAppliedDuringAReloadLandsOnTheReloadedSnapshot() throws Exception {
+        index.reload(() -> List.of(product("1", "Whole Milk")));
+
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> reload = CompletableFuture.runAsync(() -> index.reload(() -> {
+            reading.countDown();
+            await(release);
+            return List.of(product("1", "Whole Milk"), product("2", "Greek Yogurt"));
+        }));
+        assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Void> batch = CompletableFuture.runAsync(
+                () -> index.apply(List.of(product("3", "Cheddar Cheese")), List.of("1")));
+        Thread.sleep(100);
+        // Waits for the reload rather than patching the snapshot the reload is about to replace
+        assertThat(batch).isNotDone();
+        release.countDown();
+        CompletableFuture.allOf(reload, batch).get(5, TimeUnit.SECONDS);
+
+        assertThat(index.all()).extracting(Product::getName).containsExactlyInAnyOrder("Greek Yogurt", "Cheddar Cheese");
+    }
+
+    private static Product product(String id, String name) {
+        Product product = new Product(name, "Fresh Farm", 2.99, "Dairy", name);
+        product.setId(id);
+        product.setInStock(true);
+        return product;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.voice.shopping.service;
+
+import com.voice.shopping.dto.VoiceCommandResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VoiceProcessingServiceTest {
+
+    private final GeminiService geminiService = mock(GeminiService.class);
+    private final ProductService productService = mock(ProductService.class);
+    private final ProductCandidateSelector candidateSelector = mock(ProductCandidateSelector.class);
+    // One thread: any join on work queued behind it would never finish
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final VoiceProcessingService service = new VoiceProcessingService(geminiService,
+            mock(ShoppingListService.class), productService, executor, new LocalIntentParser(), candidateSelector,
+            new SimpleMeterRegistry(), mock(VoiceSessionCache.class));
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void localFallbackDoesNotBlockTheVoiceExecutor() throws Exception {
+        when(geminiService.processVoiceCommandAsync(anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Gemini unavailable")));
+        when(productService.getProductSuggestions(anyString())).thenReturn(List.of());
+        when(candidateSelector.shortlistForItem(anyString(), any())).thenReturn("");
+        // The add path continues on the voice executor once Gemini has answered
+        when(geminiService.generateProductSuggestionsAsync(anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture("none"));
+
+        VoiceCommandResponse response = service.processVoiceCommandAsync("user-1", "add milk")
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(response.getMessage()).contains("couldn't find 'milk'");
+    }
+}
@@ -0,0 +1,54 @@
+package com.voice.shopping.service;
+
+import com.voice.shopping.model.ShoppingItem;
+import com.voice.shopping.repository.ShoppingItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VoiceSessionCacheTest {
+
+    private final ShoppingItemRepository repository = mock(ShoppingItemRepository.class);
+    private final VoiceSessionCache cache = new VoiceSessionCache(repository);
+
+    @Test
+    void reusesTheSnapshotWithinItsTtl() {
+        configure(Duration.ofMinutes(1));
+        when(repository.findByUserId("user")).thenReturn(List.of(item("Milk")));
+
+        cache.getSnapshot("user");
+        cache.getSnapshot("user");
+
+        verify(repository, times(1)).findByUserId("user");
+    }
+
+    @Test
+    void reloadsAnExpiredSnapshotSoOtherInstancesWritesShowUp() {
+        configure(Duration.ZERO);
+        when(repository.findByUserId("user"))
+                .thenReturn(List.of(item("Milk")))
+                .thenReturn(List.of());
+
+        assertThat(cache.findItemToChange("user", "milk")).isPresent();
+        // Another instance removed the milk; this one never saw the write
+        assertThat(cache.findItemToChange("user", "milk")).isEmpty();
+    }
+
+    private void configure(Duration snapshotTtl) {
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(cache, "maxSessions", 100);
+        ReflectionTestUtils.setField(cache, "snapshotTtl", snapshotTtl);
+    }
+
+    private static ShoppingItem item(String name) {
+        return new ShoppingItem("user", name, 1, "Dairy");
+    }
+}